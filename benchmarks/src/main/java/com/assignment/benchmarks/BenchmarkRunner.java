@@ -0,0 +1,54 @@
+package com.assignment.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs the benchmarks matching a pattern once per thread count and writes all results to one JMH JSON file,
+ * in the format of {@code baseline/jmh-result.json}.
+ * <p>
+ * Arguments: {@code [include regex] [comma-separated thread counts] [result file]}, defaulting to every
+ * benchmark at 1, 4 and 16 threads into {@code target/jmh-result.json}.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = args.length > 0 ? args[0] : ".*";
+        String threadCounts = args.length > 1 ? args[1] : "1,4,16";
+        Path resultFile = Path.of(args.length > 2 ? args[2] : "target/jmh-result.json");
+
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        ArrayNode results = objectMapper.createArrayNode();
+        for (String threads : threadCounts.split(",")) {
+            File runResult = File.createTempFile("jmh-", ".json");
+            runResult.deleteOnExit();
+            new Runner(new OptionsBuilder()
+                    .include(include)
+                    .threads(Integer.parseInt(threads.trim()))
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(runResult.getPath())
+                    .build())
+                    .run();
+            results.addAll((ArrayNode) objectMapper.readTree(runResult));
+        }
+
+        if (resultFile.getParent() != null) {
+            Files.createDirectories(resultFile.getParent());
+        }
+        objectMapper.writeValue(resultFile.toFile(), results);
+        System.out.println("Results for thread counts " + threadCounts + " written to " + resultFile.toAbsolutePath());
+    }
+}
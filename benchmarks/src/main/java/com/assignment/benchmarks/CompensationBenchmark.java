@@ -0,0 +1,69 @@
+package com.assignment.benchmarks;
+
+import com.assignment.service_B.dto.ResponseDTO;
+import com.assignment.service_B.entity.TransactionLog;
+import com.assignment.service_B.service.SagaParticipantService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code SagaParticipantService.compensateTransaction} for a SUCCESS log: the lookup, the COMPENSATED update
+ * and queueing the notification to Service A. Every iteration compensates fresh logs, so no call takes the
+ * already-compensated shortcut.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class CompensationBenchmark {
+
+    private static final int LOGS_PER_ITERATION = 50_000;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private SagaParticipantService sagaParticipantService;
+    private ServiceBContext serviceB;
+    private List<String> requestIds;
+    private int iteration;
+
+    @Setup
+    public void setUp(ServiceBContext serviceB) {
+        this.serviceB = serviceB;
+        sagaParticipantService = serviceB.getBean(SagaParticipantService.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void insertLogs() {
+        requestIds = serviceB.insertLogs("compensate-" + iteration++, LOGS_PER_ITERATION, TransactionLog.Status.SUCCESS);
+        next.set(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkLogsSufficed() {
+        if (next.get() > LOGS_PER_ITERATION) {
+            throw new IllegalStateException("Ran out of logs to compensate after " + LOGS_PER_ITERATION
+                    + " calls; raise LOGS_PER_ITERATION");
+        }
+    }
+
+    @Benchmark
+    public ResponseDTO compensateTransaction() {
+        int index = next.getAndIncrement();
+        return sagaParticipantService.compensateTransaction(requestIds.get(Math.min(index, LOGS_PER_ITERATION - 1)));
+    }
+}
@@ -0,0 +1,111 @@
+package com.assignment.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON (de)serialization of the DTOs exchanged on the process call: Service A writes its {@code RequestDTO} and
+ * reads Service B's {@code ResponseDTO}, Service B reads its {@code RequestDTO} and writes its
+ * {@code ResponseDTO}. Uses an {@code ObjectMapper} configured the way Spring Boot configures the services'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class JacksonBenchmark {
+
+    private ObjectWriter writer;
+    private ObjectReader serviceARequestReader;
+    private ObjectReader serviceAResponseReader;
+    private ObjectReader serviceBRequestReader;
+    private ObjectReader serviceBResponseReader;
+
+    private com.assignment.service_A.dto.RequestDTO serviceARequest;
+    private com.assignment.service_A.dto.ResponseDTO serviceAResponse;
+    private com.assignment.service_B.dto.RequestDTO serviceBRequest;
+    private com.assignment.service_B.dto.ResponseDTO serviceBResponse;
+
+    private byte[] serviceARequestJson;
+    private byte[] serviceAResponseJson;
+    private byte[] serviceBRequestJson;
+    private byte[] serviceBResponseJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writer();
+        serviceARequestReader = objectMapper.readerFor(com.assignment.service_A.dto.RequestDTO.class);
+        serviceAResponseReader = objectMapper.readerFor(com.assignment.service_A.dto.ResponseDTO.class);
+        serviceBRequestReader = objectMapper.readerFor(com.assignment.service_B.dto.RequestDTO.class);
+        serviceBResponseReader = objectMapper.readerFor(com.assignment.service_B.dto.ResponseDTO.class);
+
+        serviceARequest = new com.assignment.service_A.dto.RequestDTO("req-123456", "Order details", "user-456");
+        serviceAResponse = new com.assignment.service_A.dto.ResponseDTO("SUCCESS", "req-123456",
+                "Request is successfully completed!");
+        serviceBRequest = new com.assignment.service_B.dto.RequestDTO("req-123456", "user-456", "Order details");
+        serviceBResponse = new com.assignment.service_B.dto.ResponseDTO("SUCCESS", "req-123456",
+                "Request is successfully completed!");
+
+        serviceARequestJson = writer.writeValueAsBytes(serviceARequest);
+        serviceAResponseJson = writer.writeValueAsBytes(serviceAResponse);
+        serviceBRequestJson = writer.writeValueAsBytes(serviceBRequest);
+        serviceBResponseJson = writer.writeValueAsBytes(serviceBResponse);
+    }
+
+    @Benchmark
+    public byte[] serviceARequestSerialize() throws IOException {
+        return writer.writeValueAsBytes(serviceARequest);
+    }
+
+    @Benchmark
+    public Object serviceARequestDeserialize() throws IOException {
+        return serviceARequestReader.readValue(serviceARequestJson);
+    }
+
+    @Benchmark
+    public byte[] serviceAResponseSerialize() throws IOException {
+        return writer.writeValueAsBytes(serviceAResponse);
+    }
+
+    @Benchmark
+    public Object serviceAResponseDeserialize() throws IOException {
+        return serviceAResponseReader.readValue(serviceAResponseJson);
+    }
+
+    @Benchmark
+    public byte[] serviceBRequestSerialize() throws IOException {
+        return writer.writeValueAsBytes(serviceBRequest);
+    }
+
+    @Benchmark
+    public Object serviceBRequestDeserialize() throws IOException {
+        return serviceBRequestReader.readValue(serviceBRequestJson);
+    }
+
+    @Benchmark
+    public byte[] serviceBResponseSerialize() throws IOException {
+        return writer.writeValueAsBytes(serviceBResponse);
+    }
+
+    @Benchmark
+    public Object serviceBResponseDeserialize() throws IOException {
+        return serviceBResponseReader.readValue(serviceBResponseJson);
+    }
+}
@@ -0,0 +1,58 @@
+package com.assignment.benchmarks;
+
+import com.assignment.service_B.dto.RequestDTO;
+import com.assignment.service_B.dto.ResponseDTO;
+import com.assignment.service_B.entity.TransactionLog;
+import com.assignment.service_B.service.ProcessingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code ProcessingService.processRequest} through Service B's proxies (transaction, retry) for a new request
+ * ID, which inserts a log, and for an already processed one, which stops at the duplicate lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ProcessRequestBenchmark {
+
+    private static final int PROCESSED_REQUESTS = 10_000;
+
+    private final AtomicLong nextRequestId = new AtomicLong();
+    private ProcessingService processingService;
+    private List<String> processedRequestIds;
+
+    @Setup
+    public void setUp(ServiceBContext serviceB) {
+        processingService = serviceB.getBean(ProcessingService.class);
+        processedRequestIds = serviceB.insertLogs("processed", PROCESSED_REQUESTS, TransactionLog.Status.SUCCESS);
+    }
+
+    @Benchmark
+    public ResponseDTO processNewRequest() {
+        return processingService.processRequest(
+                new RequestDTO("new-" + nextRequestId.incrementAndGet(), "user-1", "Order details"));
+    }
+
+    @Benchmark
+    public ResponseDTO processDuplicateRequest() {
+        String requestId = processedRequestIds.get(ThreadLocalRandom.current().nextInt(PROCESSED_REQUESTS));
+        return processingService.processRequest(new RequestDTO(requestId, "user-1", "Order details"));
+    }
+}
@@ -0,0 +1,92 @@
+package com.assignment.benchmarks;
+
+import com.assignment.service_B.ServiceBApplication;
+import com.assignment.service_B.entity.TransactionLog;
+import com.assignment.service_B.repository.TransactionLogRepository;
+import com.assignment.service_B.service.RequestIdFilter;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Service B's application context on an in-memory H2 database, shared by all threads of a benchmark run.
+ * Compensation notifications go to a local stub that answers every request with 200, so the notifier's
+ * sender thread costs what it would against a healthy Service A.
+ */
+@State(Scope.Benchmark)
+public class ServiceBContext {
+
+    private static final int INSERT_CHUNK_SIZE = 1000;
+
+    private ExecutorService serviceAStubExecutor;
+    private HttpServer serviceAStub;
+    private ConfigurableApplicationContext context;
+
+    @Setup
+    public void start() throws IOException {
+        serviceAStub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        serviceAStub.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        serviceAStubExecutor = Executors.newSingleThreadExecutor();
+        serviceAStub.setExecutor(serviceAStubExecutor);
+        serviceAStub.start();
+
+        context = new SpringApplicationBuilder(ServiceBApplication.class)
+                .properties("spring.config.name=benchmark",
+                        "service-a.url=http://localhost:" + serviceAStub.getAddress().getPort())
+                .run();
+    }
+
+    @TearDown
+    public void stop() {
+        context.close();
+        serviceAStub.stop(0);
+        serviceAStubExecutor.shutdownNow();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Inserts {@code count} logs in the given status with request IDs {@code prefix-0} to {@code prefix-(count-1)}
+     * and registers them with the request ID filter, as if they had been processed.
+     */
+    public List<String> insertLogs(String prefix, int count, TransactionLog.Status status) {
+        TransactionLogRepository transactionLogRepository = getBean(TransactionLogRepository.class);
+        RequestIdFilter requestIdFilter = getBean(RequestIdFilter.class);
+        List<String> requestIds = new ArrayList<>(count);
+        List<TransactionLog> chunk = new ArrayList<>(INSERT_CHUNK_SIZE);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < count; i++) {
+            TransactionLog transactionLog = new TransactionLog();
+            transactionLog.setRequestId(prefix + "-" + i);
+            transactionLog.setStatus(status);
+            transactionLog.setCreatedAt(now);
+            transactionLog.setUpdatedAt(now);
+            chunk.add(transactionLog);
+            requestIds.add(transactionLog.getRequestId());
+            if (chunk.size() == INSERT_CHUNK_SIZE || i == count - 1) {
+                transactionLogRepository.insertAll(chunk);
+                chunk.clear();
+            }
+        }
+        requestIds.forEach(requestIdFilter::put);
+        return requestIds;
+    }
+}
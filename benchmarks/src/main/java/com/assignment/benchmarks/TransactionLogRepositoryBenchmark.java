@@ -0,0 +1,62 @@
+package com.assignment.benchmarks;
+
+import com.assignment.service_B.entity.TransactionLog;
+import com.assignment.service_B.repository.TransactionLogRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service B's {@code TransactionLogRepository} on its own: a lookup by request ID among
+ * {@value #EXISTING_LOGS} logs, and the insert of a new log.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class TransactionLogRepositoryBenchmark {
+
+    private static final int EXISTING_LOGS = 100_000;
+
+    private final AtomicLong nextRequestId = new AtomicLong();
+    private TransactionLogRepository transactionLogRepository;
+    private List<String> existingRequestIds;
+
+    @Setup
+    public void setUp(ServiceBContext serviceB) {
+        transactionLogRepository = serviceB.getBean(TransactionLogRepository.class);
+        existingRequestIds = serviceB.insertLogs("existing", EXISTING_LOGS, TransactionLog.Status.SUCCESS);
+    }
+
+    @Benchmark
+    public Optional<TransactionLog> findByRequestId() {
+        return transactionLogRepository.findByRequestId(
+                existingRequestIds.get(ThreadLocalRandom.current().nextInt(EXISTING_LOGS)));
+    }
+
+    @Benchmark
+    public TransactionLog save() {
+        TransactionLog transactionLog = new TransactionLog();
+        transactionLog.setRequestId("saved-" + nextRequestId.incrementAndGet());
+        transactionLog.setStatus(TransactionLog.Status.INITIATED);
+        transactionLog.setCreatedAt(LocalDateTime.now());
+        transactionLog.setUpdatedAt(LocalDateTime.now());
+        return transactionLogRepository.save(transactionLog);
+    }
+}
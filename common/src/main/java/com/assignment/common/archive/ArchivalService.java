@@ -0,0 +1,90 @@
+package com.assignment.common.archive;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves terminal rows last updated before midnight {@code retentionDays} ago from an {@link ArchiveStore} into the
+ * {@link TransactionLogArchive}, {@code batchSize} rows at a time. Each chunk is synced to its partitions before it
+ * is deleted from the table, so a crash in between leaves rows in both places, never in neither. Archiving whole
+ * days means a partition is normally written by a single run. Each run then deletes the partitions older than
+ * {@code partitionRetentionDays} (0 keeps them), which bounds the archive's index.
+ */
+@Slf4j
+public class ArchivalService<T, E extends ArchiveEntry> {
+
+    private final ArchiveStore<T, E> archiveStore;
+    private final TransactionLogArchive<E> transactionLogArchive;
+    private final Counter archivedRows;
+    private final Counter purgedPartitions;
+    private final Timer runTimer;
+    private final int retentionDays;
+    private final int batchSize;
+    private final int partitionRetentionDays;
+
+    public ArchivalService(ArchiveStore<T, E> archiveStore,
+                           TransactionLogArchive<E> transactionLogArchive,
+                           MeterRegistry meterRegistry,
+                           int retentionDays,
+                           int batchSize,
+                           int partitionRetentionDays) {
+        this.archiveStore = archiveStore;
+        this.transactionLogArchive = transactionLogArchive;
+        this.archivedRows = Counter.builder("archive.rows")
+                .description("Transaction logs moved from the table to the archive")
+                .register(meterRegistry);
+        this.purgedPartitions = Counter.builder("archive.partitions.purged")
+                .description("Archive partitions deleted after their retention")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("archive.run")
+                .description("Archival runs over terminal transaction logs")
+                .register(meterRegistry);
+        Gauge.builder("archive.index.request-ids", transactionLogArchive, TransactionLogArchive::indexedRequestIds)
+                .description("Archived request IDs held in the archive's in-memory index")
+                .register(meterRegistry);
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+        this.partitionRetentionDays = partitionRetentionDays;
+    }
+
+    @Scheduled(fixedDelayString = "${archive.interval-ms:3600000}", initialDelayString = "${archive.initial-delay-ms:60000}")
+    public void archive() {
+        LocalDateTime cutoff = LocalDate.now().minusDays(retentionDays).atStartOfDay();
+        Timer.Sample run = Timer.start();
+        long archived = 0;
+        long afterId = 0;
+        try {
+            List<T> chunk;
+            do {
+                chunk = archiveStore.findArchiveChunk(cutoff, afterId, batchSize);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                afterId = archiveStore.id(chunk.get(chunk.size() - 1));
+                transactionLogArchive.append(chunk.stream().map(archiveStore::toEntry).toList());
+                List<T> deleted = archiveStore.deleteArchived(chunk);
+                archivedRows.increment(deleted.size());
+                archived += deleted.size();
+            } while (chunk.size() == batchSize);
+            if (partitionRetentionDays > 0) {
+                purgedPartitions.increment(transactionLogArchive.purge(LocalDate.now().minusDays(partitionRetentionDays)));
+            }
+        } catch (IOException e) {
+            log.error("Archival stopped, the remaining rows stay in the table until the next run. Error: {}", e.getMessage());
+        } finally {
+            run.stop(runTimer);
+        }
+        if (archived > 0) {
+            log.info("Archived {} transaction logs last updated before {}.", archived, cutoff);
+        }
+    }
+}
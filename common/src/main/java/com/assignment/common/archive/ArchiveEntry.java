@@ -0,0 +1,17 @@
+package com.assignment.common.archive;
+
+import java.time.LocalDateTime;
+
+/**
+ * One archived row, written as a line of NDJSON by the {@link TransactionLogArchive}. Implementations are records
+ * whose first component is {@code requestId}, so every line starts with it and lookups can read just that field.
+ */
+public interface ArchiveEntry {
+
+    String requestId();
+
+    /**
+     * Picks the entry's day partition.
+     */
+    LocalDateTime updatedAt();
+}
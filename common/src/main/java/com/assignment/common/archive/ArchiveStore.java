@@ -0,0 +1,28 @@
+package com.assignment.common.archive;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The table the {@link ArchivalService} moves rows out of.
+ *
+ * @param <T> the row type
+ * @param <E> the archive entry written for a row
+ */
+public interface ArchiveStore<T, E extends ArchiveEntry> {
+
+    /**
+     * Up to {@code limit} archivable rows last updated before {@code cutoff} with an ID above {@code afterId},
+     * in ID order.
+     */
+    List<T> findArchiveChunk(LocalDateTime cutoff, long afterId, int limit);
+
+    long id(T row);
+
+    E toEntry(T row);
+
+    /**
+     * Deletes the rows from the table, returning those that were still there in an archivable state.
+     */
+    List<T> deleteArchived(List<T> rows);
+}
@@ -0,0 +1,115 @@
+package com.assignment.common.archive;
+
+/**
+ * Open-addressing map from the 64-bit hash of a request ID to the epoch day of its newest archive partition,
+ * twelve bytes a slot instead of a boxed entry per ID. Hash 0 marks a free slot, so it is stored as 1.
+ * Not thread-safe; the archive guards it with a read-write lock.
+ */
+final class RequestIdIndex {
+
+    static final int MISSING = Integer.MIN_VALUE;
+
+    private static final int MIN_CAPACITY = 1 << 10;
+
+    private long[] keys;
+    private int[] days;
+    private int size;
+
+    RequestIdIndex() {
+        this(MIN_CAPACITY);
+    }
+
+    private RequestIdIndex(int capacity) {
+        keys = new long[capacity];
+        days = new int[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * The epoch day the hash was last archived on, or {@link #MISSING}.
+     */
+    int get(long hash) {
+        long key = key(hash);
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return days[slot];
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * Records the hash on {@code day} unless it is already recorded on a later one.
+     */
+    void put(long hash, int day) {
+        if ((size + 1) * 4L > keys.length * 3L) {
+            resize(keys.length * 2);
+        }
+        long key = key(hash);
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                days[slot] = Math.max(days[slot], day);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        days[slot] = day;
+        size++;
+    }
+
+    /**
+     * A copy without the hashes whose newest day is before {@code minDay}.
+     */
+    RequestIdIndex retainFrom(int minDay) {
+        int retained = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0 && days[slot] >= minDay) {
+                retained++;
+            }
+        }
+        RequestIdIndex copy = new RequestIdIndex(capacityFor(retained));
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0 && days[slot] >= minDay) {
+                copy.put(keys[slot], days[slot]);
+            }
+        }
+        return copy;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldDays = days;
+        keys = new long[capacity];
+        days = new int[capacity];
+        size = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != 0) {
+                put(oldKeys[slot], oldDays[slot]);
+            }
+        }
+    }
+
+    private static int capacityFor(int entries) {
+        int capacity = MIN_CAPACITY;
+        while (entries * 4L > capacity * 3L) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+
+    private static long key(long hash) {
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static int slot(long key, int mask) {
+        // The hash is already well mixed, so folding its halves is enough
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+}
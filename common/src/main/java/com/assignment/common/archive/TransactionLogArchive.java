@@ -0,0 +1,486 @@
+package com.assignment.common.archive;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Archive of terminal {@code transaction_logs} rows, one partition per day of {@code updated_at}. A partition is
+ * gzip NDJSON, {@code transaction_logs-<date>.ndjson.gz}, and every archival run appends a gzip member to it, so
+ * a partition is never rewritten. Next to it {@code transaction_logs-<date>.members} records, once a member is
+ * synced, where it ends and the hashes of its request IDs. Anything in a partition past its last recorded member
+ * was cut short by a crash, before its rows were deleted from the table, and is truncated when the archive opens.
+ * <p>
+ * One in-memory index maps the 64-bit murmur3 hash of every archived request ID to its newest partition, so
+ * looking up an ID that was never archived costs a single probe and no I/O. {@link #contains} answers from the
+ * index alone (two request IDs sharing a 64-bit hash is negligible at archive sizes); {@link #findAll} reads only
+ * the partitions the index names, member by member, so a damaged member hides nothing but its own lines. The
+ * index, at twelve bytes a slot, is bounded by {@link #purge}, which drops partitions past their retention.
+ *
+ * @param <E> the entry written for each archived row
+ */
+@Slf4j
+public class TransactionLogArchive<E extends ArchiveEntry> {
+
+    private static final String PREFIX = "transaction_logs-";
+    private static final String DATA_SUFFIX = ".ndjson.gz";
+    private static final String MEMBERS_SUFFIX = ".members";
+    private static final String BLOOM_INDEX_SUFFIX = ".idx";
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private final ObjectMapper objectMapper;
+    private final Class<E> entryType;
+    private final Path directory;
+    private final ConcurrentSkipListMap<LocalDate, Partition> partitions =
+            new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+    private final ReadWriteLock indexLock = new ReentrantReadWriteLock();
+
+    // Guarded by indexLock
+    private RequestIdIndex index = new RequestIdIndex();
+
+    public TransactionLogArchive(ObjectMapper objectMapper, Class<E> entryType, String directory) {
+        this.objectMapper = objectMapper;
+        this.entryType = entryType;
+        this.directory = Path.of(directory);
+    }
+
+    /**
+     * Opens the existing partitions, truncating torn tails, and builds the index from their member records.
+     */
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + DATA_SUFFIX)) {
+            for (Path data : files) {
+                String name = data.getFileName().toString();
+                LocalDate day = LocalDate.parse(name.substring(PREFIX.length(), name.length() - DATA_SUFFIX.length()));
+                Partition partition = new Partition(day);
+                long[] hashes = partition.open();
+                partitions.put(day, partition);
+                index(hashes, day);
+            }
+        }
+        // Member records whose partition was purged by an interrupted run, and the per-partition Bloom filters
+        // written by earlier versions, which the index supersedes
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                PREFIX + "*{" + MEMBERS_SUFFIX + "," + BLOOM_INDEX_SUFFIX + "}")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String dataName = name.substring(0, name.lastIndexOf('.')) + DATA_SUFFIX;
+                if (name.endsWith(BLOOM_INDEX_SUFFIX) || !Files.exists(file.resolveSibling(dataName))) {
+                    Files.delete(file);
+                }
+            }
+        }
+        log.info("Opened {} archive partitions in {} holding {} request IDs.",
+                partitions.size(), directory.toAbsolutePath(), indexedRequestIds());
+    }
+
+    /**
+     * Appends the entries to their day partitions and syncs them to disk, then makes them visible to lookups.
+     */
+    public synchronized void append(List<E> entries) throws IOException {
+        Files.createDirectories(directory);
+        Map<LocalDate, List<E>> byDay = new TreeMap<>();
+        for (E entry : entries) {
+            byDay.computeIfAbsent(entry.updatedAt().toLocalDate(), day -> new ArrayList<>()).add(entry);
+        }
+        for (Map.Entry<LocalDate, List<E>> day : byDay.entrySet()) {
+            Partition partition = partitions.computeIfAbsent(day.getKey(), Partition::new);
+            List<String> lines = new ArrayList<>(day.getValue().size());
+            long[] hashes = new long[day.getValue().size()];
+            for (int i = 0; i < hashes.length; i++) {
+                E entry = day.getValue().get(i);
+                lines.add(objectMapper.writeValueAsString(entry));
+                hashes[i] = hash(entry.requestId());
+            }
+            partition.append(lines, hashes);
+            index(hashes, day.getKey());
+        }
+    }
+
+    /**
+     * Deletes the partitions of days before {@code cutoff} and drops their IDs from the index. Returns the number
+     * of partitions deleted.
+     */
+    public synchronized int purge(LocalDate cutoff) throws IOException {
+        List<Partition> expired = new ArrayList<>(partitions.tailMap(cutoff, false).values());
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        indexLock.writeLock().lock();
+        try {
+            index = index.retainFrom((int) cutoff.toEpochDay());
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+        for (Partition partition : expired) {
+            partitions.remove(partition.day);
+            // The member records go first, so a crash in between leaves an orphaned partition that is rebuilt
+            Files.deleteIfExists(partition.members);
+            Files.deleteIfExists(partition.data);
+        }
+        log.info("Purged {} archive partitions before {}, {} request IDs remain.", expired.size(), cutoff,
+                indexedRequestIds());
+        return expired.size();
+    }
+
+    public int indexedRequestIds() {
+        indexLock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(String requestId) {
+        return newestDay(hash(requestId)) != RequestIdIndex.MISSING;
+    }
+
+    public Optional<E> find(String requestId) {
+        return Optional.ofNullable(findAll(List.of(requestId)).get(requestId));
+    }
+
+    /**
+     * Archived entries of the given request IDs; IDs that are not archived are left out. Only the partition the
+     * index names for an ID is read, and an ID archived more than once there resolves to its last line.
+     */
+    public Map<String, E> findAll(Collection<String> requestIds) {
+        Map<LocalDate, Set<String>> byPartition = new HashMap<>();
+        for (String requestId : requestIds) {
+            int day = newestDay(hash(requestId));
+            if (day != RequestIdIndex.MISSING) {
+                byPartition.computeIfAbsent(LocalDate.ofEpochDay(day), key -> new HashSet<>()).add(requestId);
+            }
+        }
+        Map<String, E> found = new HashMap<>();
+        byPartition.forEach((day, candidates) -> {
+            Partition partition = partitions.get(day);
+            if (partition == null) {
+                return;
+            }
+            partition.scan(line -> {
+                String requestId = requestIdOf(line);
+                if (requestId != null && candidates.contains(requestId)) {
+                    E entry = parse(line);
+                    if (entry != null) {
+                        found.put(requestId, entry);
+                    }
+                }
+            });
+        });
+        return found;
+    }
+
+    private int newestDay(long hash) {
+        indexLock.readLock().lock();
+        try {
+            return index.get(hash);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    private void index(long[] hashes, LocalDate day) {
+        int epochDay = (int) day.toEpochDay();
+        indexLock.writeLock().lock();
+        try {
+            for (long hash : hashes) {
+                index.put(hash, epochDay);
+            }
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+    }
+
+    private static long hash(String requestId) {
+        return HASH.hashString(requestId, StandardCharsets.UTF_8).asLong();
+    }
+
+    /**
+     * Reads only the leading {@code requestId} field, which every line starts with, instead of the whole entry.
+     */
+    private String requestIdOf(String line) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(line)) {
+            if (parser.nextToken() == JsonToken.START_OBJECT && "requestId".equals(parser.nextFieldName())) {
+                return parser.nextTextValue();
+            }
+            return objectMapper.readValue(line, entryType).requestId();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private E parse(String line) {
+        try {
+            return objectMapper.readValue(line, entryType);
+        } catch (IOException e) {
+            log.warn("Skipping unreadable archive line: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private final class Partition {
+
+        private final LocalDate day;
+        private final Path data;
+        private final Path members;
+        /** End offsets of the complete members, in file order. */
+        private volatile long[] memberEnds = new long[0];
+
+        private Partition(LocalDate day) {
+            this.day = day;
+            this.data = directory.resolve(PREFIX + day + DATA_SUFFIX);
+            this.members = directory.resolve(PREFIX + day + MEMBERS_SUFFIX);
+        }
+
+        /**
+         * Reads the member records, cuts the data file back to the end of the last one and drops records torn
+         * by a crash. A partition without member records is rewritten from whatever it holds that is readable.
+         * Returns the hashes of the partition's request IDs.
+         */
+        private long[] open() throws IOException {
+            if (!Files.exists(members)) {
+                return rewrite();
+            }
+            long dataSize = Files.size(data);
+            List<Long> ends = new ArrayList<>();
+            List<long[]> hashes = new ArrayList<>();
+            long validRecords = 0;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(members)))) {
+                long end = 0;
+                while (true) {
+                    MemberRecord record = MemberRecord.read(in);
+                    if (record == null || record.end() <= end || record.end() > dataSize) {
+                        break;
+                    }
+                    end = record.end();
+                    ends.add(end);
+                    hashes.add(record.hashes());
+                    validRecords += record.size();
+                }
+            }
+            long validEnd = ends.isEmpty() ? 0 : ends.get(ends.size() - 1);
+            if (validRecords < Files.size(members)) {
+                log.warn("Archive member records {} end in {} torn bytes, truncating them.",
+                        members, Files.size(members) - validRecords);
+                truncate(members, validRecords);
+            }
+            if (validEnd < dataSize) {
+                log.warn("Archive partition {} ends in {} bytes never recorded as a complete member, truncating them.",
+                        data, dataSize - validEnd);
+                truncate(data, validEnd);
+            }
+            memberEnds = ends.stream().mapToLong(Long::longValue).toArray();
+            return hashes.stream().flatMapToLong(Arrays::stream).toArray();
+        }
+
+        private void append(List<String> lines, long[] hashes) throws IOException {
+            long[] ends = memberEnds;
+            long start = ends.length == 0 ? 0 : ends[ends.length - 1];
+            long end;
+            try (FileChannel channel = FileChannel.open(data, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                // Drops what a failed append in this process left behind
+                channel.truncate(start);
+                channel.position(start);
+                OutputStream out = Channels.newOutputStream(channel);
+                GZIPOutputStream gzip = new GZIPOutputStream(new BufferedOutputStream(out, 64 * 1024));
+                Writer writer = new OutputStreamWriter(gzip, StandardCharsets.UTF_8);
+                for (String line : lines) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+                writer.flush();
+                gzip.finish();
+                gzip.flush();
+                channel.force(false);
+                end = channel.position();
+            }
+            try (FileChannel channel = FileChannel.open(members,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer record = ByteBuffer.wrap(new MemberRecord(end, hashes).encode());
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+                channel.force(false);
+            }
+            long[] appended = Arrays.copyOf(ends, ends.length + 1);
+            appended[ends.length] = end;
+            memberEnds = appended;
+        }
+
+        /**
+         * Replaces the partition with a single member holding every line that can still be read, and records it.
+         */
+        private long[] rewrite() throws IOException {
+            List<String> lines = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(data), 64 * 1024), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.add(line);
+                }
+            } catch (EOFException | ZipException e) {
+                log.warn("Archive partition {} ends in an incomplete member, dropping it. Error: {}", data, e.getMessage());
+            }
+            List<String> kept = new ArrayList<>(lines.size());
+            List<Long> hashes = new ArrayList<>(lines.size());
+            for (String line : lines) {
+                String requestId = requestIdOf(line);
+                if (requestId != null) {
+                    kept.add(line);
+                    hashes.add(hash(requestId));
+                }
+            }
+            long[] hashArray = hashes.stream().mapToLong(Long::longValue).toArray();
+            Path original = data.resolveSibling(data.getFileName() + ".rewrite");
+            Files.move(data, original, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            append(kept, hashArray);
+            Files.delete(original);
+            log.info("Rewrote archive partition {} with {} lines and recorded its members.", data, kept.size());
+            return hashArray;
+        }
+
+        /**
+         * Feeds every line of the partition's complete members to the consumer. A member that cannot be read is
+         * logged and skipped.
+         */
+        private void scan(Consumer<String> lines) {
+            long start = 0;
+            for (long end : memberEnds) {
+                try (InputStream in = Files.newInputStream(data)) {
+                    in.skipNBytes(start);
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(
+                            new GZIPInputStream(ByteStreams.limit(in, end - start), 64 * 1024), StandardCharsets.UTF_8));
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        lines.accept(line);
+                    }
+                } catch (EOFException | ZipException e) {
+                    log.error("Archive partition {} has an unreadable member at offset {}, skipping it. Error: {}",
+                            data, start, e.getMessage());
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to read archive partition " + data, e);
+                }
+                start = end;
+            }
+        }
+
+        private static void truncate(Path file, long size) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(size);
+                channel.force(false);
+            }
+        }
+    }
+
+    /**
+     * {@code [int count][long end][long hash x count][int crc32]}: where a complete member ends and the hashes of
+     * the request IDs in it.
+     */
+    private record MemberRecord(long end, long[] hashes) {
+
+        private static final int MAX_COUNT = 1 << 24;
+
+        long size() {
+            return Integer.BYTES + Long.BYTES + (long) hashes.length * Long.BYTES + Integer.BYTES;
+        }
+
+        byte[] encode() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) size());
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(hashes.length);
+            out.writeLong(end);
+            for (long hash : hashes) {
+                out.writeLong(hash);
+            }
+            out.writeInt(checksum(bytes.toByteArray()));
+            return bytes.toByteArray();
+        }
+
+        /**
+         * The next record, or {@code null} at the end of the file or at a record that is torn or corrupt.
+         */
+        static MemberRecord read(DataInputStream in) throws IOException {
+            try {
+                int count = in.readInt();
+                if (count < 0 || count > MAX_COUNT) {
+                    return null;
+                }
+                byte[] body = new byte[Integer.BYTES + Long.BYTES + count * Long.BYTES];
+                ByteBuffer.wrap(body).putInt(count);
+                in.readFully(body, Integer.BYTES, body.length - Integer.BYTES);
+                if (in.readInt() != checksum(body)) {
+                    return null;
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(body, Integer.BYTES, body.length - Integer.BYTES);
+                long end = buffer.getLong();
+                long[] hashes = new long[count];
+                for (int i = 0; i < count; i++) {
+                    hashes[i] = buffer.getLong();
+                }
+                return new MemberRecord(end, hashes);
+            } catch (EOFException e) {
+                return null;
+            }
+        }
+
+        private static int checksum(byte[] bytes) {
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            return (int) crc.getValue();
+        }
+    }
+}
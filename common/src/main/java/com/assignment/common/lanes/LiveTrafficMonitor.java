@@ -0,0 +1,75 @@
+package com.assignment.common.lanes;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks how long live work takes, so the background lanes can yield to it: before each step a background lane
+ * calls {@link #awaitTurn(String)}, which holds it back while the recent average exceeds
+ * {@code lanes.yield-latency-ms}, for at most {@code lanes.max-yield-ms} so background work is slowed down rather
+ * than starved. Averages older than a few seconds are ignored, as they no longer say anything about live traffic.
+ * Each service declares it as a bean and records its own live work: Service A its calls to Service B, Service B
+ * the requests and batches it processes.
+ */
+@Slf4j
+public class LiveTrafficMonitor {
+
+    private static final int WINDOW = 20;
+    private static final long STALE_AFTER_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final MeterRegistry meterRegistry;
+    private final long yieldLatencyNanos;
+    private final long maxYieldNanos;
+    private final long pollMs;
+
+    private volatile double averageNanos;
+    private volatile long lastSampleNanos;
+
+    public LiveTrafficMonitor(MeterRegistry meterRegistry, long yieldLatencyMs, long maxYieldMs, long pollMs) {
+        this.meterRegistry = meterRegistry;
+        this.yieldLatencyNanos = TimeUnit.MILLISECONDS.toNanos(yieldLatencyMs);
+        this.maxYieldNanos = TimeUnit.MILLISECONDS.toNanos(maxYieldMs);
+        this.pollMs = pollMs;
+    }
+
+    /**
+     * Records the duration of one piece of live work, successful or not.
+     */
+    public synchronized void record(long nanos) {
+        averageNanos = averageNanos == 0 ? nanos : averageNanos + (nanos - averageNanos) / WINDOW;
+        lastSampleNanos = System.nanoTime();
+    }
+
+    public boolean isLiveDegraded() {
+        return averageNanos > yieldLatencyNanos && System.nanoTime() - lastSampleNanos < STALE_AFTER_NANOS;
+    }
+
+    /**
+     * Returns once live traffic is healthy or the lane has yielded for {@code lanes.max-yield-ms}; the time
+     * spent waiting is recorded as {@code lanes.yield} tagged with the lane.
+     */
+    public void awaitTurn(String lane) {
+        if (!isLiveDegraded()) {
+            return;
+        }
+        long start = System.nanoTime();
+        log.debug("{} lane yielding to live traffic ({} ms average)", lane,
+                TimeUnit.NANOSECONDS.toMillis((long) averageNanos));
+        try {
+            while (isLiveDegraded() && System.nanoTime() - start < maxYieldNanos) {
+                Thread.sleep(pollMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            Timer.builder("lanes.yield")
+                    .description("Time background lanes held back while live latency was high")
+                    .tag("lane", lane)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.assignment.common.recovery;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of recovery scans, served at {@code /actuator/recovery}: the latest startup scan, which the
+ * readiness gate watches, and the latest scan of any kind. The backlog is counted when a scan starts, so
+ * {@code remaining} is an estimate; rows that become due during the scan are left for the next one.
+ * Each service declares it as a bean and reports its own scans here.
+ */
+@Endpoint(id = "recovery")
+public class RecoveryProgress {
+
+    /**
+     * Trigger of the scan started when the application is ready.
+     */
+    public static final String STARTUP = "startup";
+
+    public enum State { RUNNING, COMPLETED, ABORTED }
+
+    private volatile Run startup;
+    private volatile Run latest;
+
+    public Run start(String trigger, long backlog) {
+        Run run = new Run(trigger, backlog);
+        if (STARTUP.equals(trigger)) {
+            startup = run;
+        }
+        latest = run;
+        return run;
+    }
+
+    /**
+     * Whether the startup scan has finished, or has no more than {@code threshold} rows left to scan.
+     */
+    public boolean isStartupCaughtUp(long threshold) {
+        Run run = startup;
+        return run != null && (run.state == State.COMPLETED || run.remaining() <= threshold);
+    }
+
+    /**
+     * Rows the startup scan still has to get through, or -1 before it has started.
+     */
+    public long startupRemaining() {
+        Run run = startup;
+        return run == null ? -1 : run.remaining();
+    }
+
+    @ReadOperation
+    public Map<String, Object> progress() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("startup", startup == null ? Map.of("state", "PENDING") : startup.toMap());
+        progress.put("latest", latest == null ? Map.of("state", "PENDING") : latest.toMap());
+        return progress;
+    }
+
+    public static final class Run {
+        private final String trigger;
+        private final long backlog;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong recovered = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong deferred = new AtomicLong();
+        private volatile State state = State.RUNNING;
+        private volatile Instant finishedAt;
+
+        private Run(String trigger, long backlog) {
+            this.trigger = trigger;
+            this.backlog = backlog;
+        }
+
+        public void scanned(int rows) {
+            scanned.addAndGet(rows);
+        }
+
+        public void recovered(int rows) {
+            recovered.addAndGet(rows);
+        }
+
+        public void failed() {
+            failed.incrementAndGet();
+        }
+
+        public void deferred() {
+            deferred.incrementAndGet();
+        }
+
+        public void finish(boolean completed) {
+            finishedAt = Instant.now();
+            state = completed ? State.COMPLETED : State.ABORTED;
+        }
+
+        long remaining() {
+            return state == State.COMPLETED ? 0 : Math.max(0, backlog - scanned.get());
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("trigger", trigger);
+            map.put("state", state);
+            map.put("startedAt", startedAt);
+            map.put("finishedAt", finishedAt);
+            map.put("backlog", backlog);
+            map.put("scanned", scanned.get());
+            map.put("recovered", recovered.get());
+            map.put("failed", failed.get());
+            map.put("deferred", deferred.get());
+            map.put("remaining", remaining());
+            return map;
+        }
+    }
+}
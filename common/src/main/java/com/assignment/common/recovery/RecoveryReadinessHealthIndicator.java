@@ -0,0 +1,40 @@
+package com.assignment.common.recovery;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * {@code recoveryReadiness} health, part of the readiness group. With {@code recovery.startup.readiness-gate}
+ * enabled the instance stays OUT_OF_SERVICE until the startup scan has no more than
+ * {@code recovery.startup.readiness-threshold} rows left; after that it stays UP, whatever later scans find.
+ * Disabled, it is always UP and the instance takes traffic while the backlog is recovered. Each service declares
+ * it as a bean named {@code recoveryReadinessHealthIndicator}.
+ */
+public class RecoveryReadinessHealthIndicator implements HealthIndicator {
+
+    private final RecoveryProgress recoveryProgress;
+    private final boolean enabled;
+    private final long threshold;
+    private volatile boolean caughtUp;
+
+    public RecoveryReadinessHealthIndicator(RecoveryProgress recoveryProgress, boolean enabled, long threshold) {
+        this.recoveryProgress = recoveryProgress;
+        this.enabled = enabled;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public Health health() {
+        if (!enabled || caughtUp) {
+            return Health.up().build();
+        }
+        if (recoveryProgress.isStartupCaughtUp(threshold)) {
+            caughtUp = true;
+            return Health.up().build();
+        }
+        return Health.outOfService()
+                .withDetail("remaining", recoveryProgress.startupRemaining())
+                .withDetail("threshold", threshold)
+                .build();
+    }
+}
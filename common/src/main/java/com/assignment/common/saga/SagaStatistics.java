@@ -0,0 +1,256 @@
+package com.assignment.common.saga;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Saga statistics kept in memory, served at {@code /actuator/saga}: logs per status, transitions between statuses
+ * over a sliding window and the resulting throughput. Every place that changes a log's status reports it here, after
+ * its transaction commits, so reading the statistics never touches the database. Per-status counts are seeded from
+ * one {@code GROUP BY} once the application is ready; changes committed while the seed query runs may be counted
+ * twice, and rows changed outside this service (by hand, or by a restore) are not seen until the next restart.
+ * <p>
+ * Each service declares it as a bean over its own log type {@code T} and status enum {@code S}: a saga starts in
+ * {@code initial} and completes when its log leaves it, {@code statusOf} reads a log's status and
+ * {@code storedCounts} runs the seed query.
+ */
+@Slf4j
+@Endpoint(id = "saga")
+public class SagaStatistics<T, S extends Enum<S>> {
+
+    /**
+     * Source state of logs that were inserted rather than moved.
+     */
+    public static final String NEW = "NEW";
+
+    private static final long LAST_MINUTE_SECONDS = 60;
+
+    private final S initial;
+    private final Function<T, S> statusOf;
+    private final Supplier<Map<S, Long>> storedCounts;
+    private final int windowSeconds;
+    private final long startedAt = System.nanoTime();
+    private final Map<S, LongAdder> counts;
+    private final Map<String, Transition<S>> transitions = new ConcurrentHashMap<>();
+    private volatile boolean seeded;
+
+    public SagaStatistics(S initial, Function<T, S> statusOf, Supplier<Map<S, Long>> storedCounts, int windowSeconds) {
+        this.initial = initial;
+        this.statusOf = statusOf;
+        this.storedCounts = storedCounts;
+        this.windowSeconds = Math.max(windowSeconds, (int) LAST_MINUTE_SECONDS);
+        this.counts = new EnumMap<>(initial.getDeclaringClass());
+        for (S status : initial.getDeclaringClass().getEnumConstants()) {
+            counts.put(status, new LongAdder());
+        }
+    }
+
+    /**
+     * Adds the stored per-status counts to whatever was recorded before, less what had already been recorded when
+     * the query started (those rows are in its result). Runs before startup recovery, which is asynchronous.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        Map<S, Long> recorded = counts();
+        storedCounts.get().forEach((status, count) -> counts.get(status).add(count - recorded.get(status)));
+        seeded = true;
+        log.info("Saga statistics seeded: {}", counts());
+    }
+
+    /**
+     * Records {@code count} logs inserted in {@code status}.
+     */
+    public void created(S status, long count) {
+        record(null, status, count);
+    }
+
+    /**
+     * Records {@code count} logs moved from {@code from} to {@code to}.
+     */
+    public void transitioned(S from, S to, long count) {
+        record(from, to, count);
+    }
+
+    /**
+     * Records logs moved from {@code from} to whatever status each of them now has.
+     */
+    public void transitioned(S from, Collection<? extends T> transactionLogs) {
+        groupByStatus(transactionLogs).forEach((to, count) -> record(from, to, count));
+    }
+
+    /**
+     * Records archived logs leaving the table.
+     */
+    public void removed(Collection<? extends T> transactionLogs) {
+        Map<S, Long> byStatus = groupByStatus(transactionLogs);
+        afterCommit(() -> byStatus.forEach((status, count) -> counts.get(status).add(-count)));
+    }
+
+    public long count(S status) {
+        return counts.get(status).sum();
+    }
+
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        long now = nowSeconds();
+        long span = Math.clamp(now + 1, 1, windowSeconds);
+        long started = 0;
+        long completed = 0;
+        Map<String, Object> transitionStats = new TreeMap<>();
+        for (Map.Entry<String, Transition<S>> entry : transitions.entrySet()) {
+            Transition<S> transition = entry.getValue();
+            long inWindow = transition.window.sum(now, windowSeconds);
+            if (transition.from == null) {
+                started += inWindow;
+            }
+            // Compensating a completed saga does not complete it again
+            if (transition.to != initial && (transition.from == null || transition.from == initial)) {
+                completed += inWindow;
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("total", transition.total.sum());
+            stats.put("lastMinute", transition.window.sum(now, LAST_MINUTE_SECONDS));
+            stats.put("window", inWindow);
+            transitionStats.put(entry.getKey(), stats);
+        }
+
+        Map<String, Object> throughput = new LinkedHashMap<>();
+        throughput.put("windowSeconds", span);
+        throughput.put("startedPerSecond", (double) started / span);
+        throughput.put("completedPerSecond", (double) completed / span);
+
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("seeded", seeded);
+        statistics.put("counts", counts());
+        statistics.put("throughput", throughput);
+        statistics.put("transitions", transitionStats);
+        return statistics;
+    }
+
+    private void record(S from, S to, long count) {
+        if (count <= 0) {
+            return;
+        }
+        afterCommit(() -> {
+            if (from != null) {
+                counts.get(from).add(-count);
+            }
+            counts.get(to).add(count);
+            transitions.computeIfAbsent((from == null ? NEW : from.name()) + "->" + to.name(),
+                    key -> new Transition<>(from, to, windowSeconds)).add(nowSeconds(), count);
+        });
+    }
+
+    /**
+     * Changes made inside a transaction only count once it commits; a rolled-back change never happened.
+     */
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    private Map<S, Long> groupByStatus(Collection<? extends T> transactionLogs) {
+        Map<S, Long> byStatus = new EnumMap<>(initial.getDeclaringClass());
+        for (T transactionLog : transactionLogs) {
+            byStatus.merge(statusOf.apply(transactionLog), 1L, Long::sum);
+        }
+        return byStatus;
+    }
+
+    private Map<S, Long> counts() {
+        Map<S, Long> snapshot = new EnumMap<>(initial.getDeclaringClass());
+        counts.forEach((status, count) -> snapshot.put(status, count.sum()));
+        return snapshot;
+    }
+
+    private long nowSeconds() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startedAt);
+    }
+
+    private static final class Transition<S> {
+        private final S from;
+        private final S to;
+        private final LongAdder total = new LongAdder();
+        private final SlidingWindow window;
+
+        private Transition(S from, S to, int windowSeconds) {
+            this.from = from;
+            this.to = to;
+            this.window = new SlidingWindow(windowSeconds);
+        }
+
+        void add(long second, long count) {
+            total.add(count);
+            window.add(second, count);
+        }
+    }
+
+    /**
+     * Ring of one-second buckets. A bucket is reclaimed by whichever writer first sees it stamped with an old
+     * second; a write racing that reset may be lost, which is accepted for statistics.
+     */
+    private static final class SlidingWindow {
+        private final LongAdder[] buckets;
+        private final AtomicLongArray stamps;
+
+        private SlidingWindow(int seconds) {
+            buckets = new LongAdder[seconds];
+            stamps = new AtomicLongArray(seconds);
+            for (int i = 0; i < seconds; i++) {
+                buckets[i] = new LongAdder();
+                stamps.set(i, -1);
+            }
+        }
+
+        void add(long second, long count) {
+            int i = (int) (second % buckets.length);
+            long stamp = stamps.get(i);
+            if (stamp != second && stamps.compareAndSet(i, stamp, second)) {
+                buckets[i].reset();
+            }
+            buckets[i].add(count);
+        }
+
+        /**
+         * Sum of the last {@code seconds} seconds up to and including {@code now}.
+         */
+        long sum(long now, long seconds) {
+            long sum = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                long stamp = stamps.get(i);
+                if (stamp > now - seconds && stamp <= now) {
+                    sum += buckets[i].sum();
+                }
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.assignment.common.archive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionLogArchiveTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 1, 15);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void answersFromIndexAndReadsOnlyTheNamedPartition() throws IOException {
+        TransactionLogArchive<Entry> archive = open();
+        archive.append(List.of(entry("req-1", DAY, "first"), entry("req-2", DAY.plusDays(1), "second")));
+        archive.append(List.of(entry("req-1", DAY.plusDays(2), "again")));
+
+        assertThat(archive.contains("req-1")).isTrue();
+        assertThat(archive.contains("req-3")).isFalse();
+        assertThat(archive.find("req-1")).map(Entry::note).contains("again");
+        assertThat(archive.findAll(List.of("req-1", "req-2", "req-3"))).containsOnlyKeys("req-1", "req-2");
+    }
+
+    @Test
+    void truncatesMemberTornByCrashOnOpen() throws IOException {
+        TransactionLogArchive<Entry> archive = open();
+        archive.append(List.of(entry("req-1", DAY, "kept")));
+        Path data = directory.resolve("transaction_logs-" + DAY + ".ndjson.gz");
+        long committed = Files.size(data);
+        // A member whose write was cut short; it was never recorded, so its rows are still in the table
+        Files.write(data, new byte[]{0x1f, (byte) 0x8b, 8, 0, 0}, StandardOpenOption.APPEND);
+
+        TransactionLogArchive<Entry> reopened = open();
+        assertThat(Files.size(data)).isEqualTo(committed);
+        reopened.append(List.of(entry("req-2", DAY, "after")));
+
+        assertThat(open().findAll(List.of("req-1", "req-2"))).containsOnlyKeys("req-1", "req-2");
+    }
+
+    @Test
+    void damagedMemberHidesOnlyItsOwnEntries() throws IOException {
+        TransactionLogArchive<Entry> archive = open();
+        archive.append(List.of(entry("req-1", DAY, "first")));
+        archive.append(List.of(entry("req-2", DAY, "second")));
+        archive.append(List.of(entry("req-3", DAY, "third")));
+        Path data = directory.resolve("transaction_logs-" + DAY + ".ndjson.gz");
+        try (RandomAccessFile file = new RandomAccessFile(data.toFile(), "rw")) {
+            // Corrupts the second byte of the first member's header magic
+            file.seek(1);
+            file.write(0);
+        }
+
+        assertThat(open().findAll(List.of("req-1", "req-2", "req-3"))).containsOnlyKeys("req-2", "req-3");
+    }
+
+    @Test
+    void purgeDeletesOldPartitionsAndTheirIds() throws IOException {
+        TransactionLogArchive<Entry> archive = open();
+        archive.append(List.of(entry("req-old", DAY, "old"), entry("req-new", DAY.plusDays(10), "new")));
+
+        assertThat(archive.purge(DAY.plusDays(5))).isEqualTo(1);
+
+        assertThat(archive.contains("req-old")).isFalse();
+        assertThat(archive.contains("req-new")).isTrue();
+        assertThat(directory.resolve("transaction_logs-" + DAY + ".ndjson.gz")).doesNotExist();
+        assertThat(open().indexedRequestIds()).isEqualTo(1);
+    }
+
+    private TransactionLogArchive<Entry> open() throws IOException {
+        TransactionLogArchive<Entry> archive = new TransactionLogArchive<>(objectMapper, Entry.class, directory.toString());
+        archive.open();
+        return archive;
+    }
+
+    private static Entry entry(String requestId, LocalDate day, String note) {
+        return new Entry(requestId, day.atTime(12, 0), note);
+    }
+
+    record Entry(String requestId, LocalDateTime updatedAt, String note) implements ArchiveEntry {
+    }
+}
@@ -0,0 +1,82 @@
+package com.assignment.loadtest;
+
+import com.assignment.service_A.ServiceAApplication;
+import com.assignment.service_B.ServiceBApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Both services as Spring contexts in this JVM. Both jars carry an {@code application.yaml} at the classpath
+ * root, so each context is pointed at the one inside its own jar.
+ */
+final class InProcessCluster implements ServiceCluster {
+
+    private final ConfigurableApplicationContext serviceB;
+    private final ConfigurableApplicationContext serviceA;
+    private final String serviceAUrl;
+    private final String serviceBUrl;
+
+    private InProcessCluster(ConfigurableApplicationContext serviceB, ConfigurableApplicationContext serviceA,
+                             String serviceAUrl, String serviceBUrl) {
+        this.serviceB = serviceB;
+        this.serviceA = serviceA;
+        this.serviceAUrl = serviceAUrl;
+        this.serviceBUrl = serviceBUrl;
+    }
+
+    static InProcessCluster start(Map<String, String> serviceAProperties, Map<String, String> serviceBProperties) {
+        ConfigurableApplicationContext serviceB = run(ServiceBApplication.class, serviceBProperties);
+        try {
+            ConfigurableApplicationContext serviceA = run(ServiceAApplication.class, serviceAProperties);
+            return new InProcessCluster(serviceB, serviceA,
+                    "http://localhost:" + serviceAProperties.get("server.port"),
+                    "http://localhost:" + serviceBProperties.get("server.port"));
+        } catch (RuntimeException e) {
+            serviceB.close();
+            throw e;
+        }
+    }
+
+    private static ConfigurableApplicationContext run(Class<?> application, Map<String, String> properties) {
+        Map<String, String> arguments = new LinkedHashMap<>();
+        arguments.put("spring.config.location", ownApplicationYaml(application));
+        arguments.put("logging.config", "classpath:logback-loadtest.xml");
+        arguments.putAll(properties);
+        // Passed as command line arguments so they take precedence over application.yaml, as in a real launch
+        return new SpringApplicationBuilder(application)
+                .run(arguments.entrySet().stream()
+                        .map(argument -> "--" + argument.getKey() + "=" + argument.getValue())
+                        .toArray(String[]::new));
+    }
+
+    private static String ownApplicationYaml(Class<?> application) {
+        URL codeSource = application.getProtectionDomain().getCodeSource().getLocation();
+        try {
+            String location = codeSource.toURI().toString();
+            return location.endsWith(".jar") ? "jar:" + location + "!/application.yaml" : location + "application.yaml";
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Cannot locate application.yaml of " + application.getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public String serviceAUrl() {
+        return serviceAUrl;
+    }
+
+    @Override
+    public String serviceBUrl() {
+        return serviceBUrl;
+    }
+
+    @Override
+    public void close() {
+        serviceA.close();
+        serviceB.close();
+    }
+}
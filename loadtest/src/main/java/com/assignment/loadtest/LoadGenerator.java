@@ -0,0 +1,123 @@
+package com.assignment.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop generator for {@code POST /api/user-requests}: arrivals follow the configured rate stages whether or
+ * not earlier requests have completed, so a slow service builds up in-flight requests and latency rather than
+ * lowering the offered load. One thread schedules the arrivals; requests are sent asynchronously.
+ */
+final class LoadGenerator {
+
+    private static final int RECENT_REQUEST_IDS = 10_000;
+
+    private final HttpClient client;
+    private final URI endpoint;
+    private final LoadTestConfig config;
+    private final LoadStats stats;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final String[] recentRequestIds = new String[RECENT_REQUEST_IDS];
+    private final List<String> payloads = new ArrayList<>();
+    private final List<Integer> cumulativeWeights = new ArrayList<>();
+    private int totalWeight;
+    private long sent;
+
+    LoadGenerator(HttpClient client, String serviceAUrl, LoadTestConfig config, LoadStats stats) {
+        this.client = client;
+        this.endpoint = URI.create(serviceAUrl + "/api/user-requests");
+        this.config = config;
+        this.stats = stats;
+        for (Map.Entry<Integer, Integer> size : config.payloadSizes().entrySet()) {
+            payloads.add("x".repeat(size.getKey()));
+            totalWeight += size.getValue();
+            cumulativeWeights.add(totalWeight);
+        }
+    }
+
+    /**
+     * Offers the load of every stage in turn and returns once the last arrival has been sent; responses may
+     * still be outstanding.
+     */
+    void run() {
+        long next = System.nanoTime();
+        for (LoadTestConfig.Stage stage : config.stages()) {
+            long stageEnd = next + stage.duration().toNanos();
+            double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / stage.rate();
+            while (next < stageEnd) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                    continue;
+                }
+                // Behind schedule arrivals are sent right away, so the offered rate holds
+                send(next);
+                next += (long) (config.poisson()
+                        ? -Math.log(1 - random.nextDouble()) * meanIntervalNanos
+                        : meanIntervalNanos);
+            }
+            next = Math.max(next, stageEnd);
+        }
+    }
+
+    private void send(long scheduledAt) {
+        stats.offered.increment();
+        if (stats.inFlight.get() >= config.maxInFlight()) {
+            stats.dropped.increment();
+            return;
+        }
+
+        boolean duplicate = sent > 0 && random.nextDouble() < config.duplicateRatio();
+        String requestId = duplicate
+                ? recentRequestIds[random.nextInt((int) Math.min(sent, RECENT_REQUEST_IDS))]
+                : "load-" + sent;
+        if (!duplicate) {
+            recentRequestIds[(int) (sent % RECENT_REQUEST_IDS)] = requestId;
+            sent++;
+        }
+        String body = "{\"requestId\":\"" + requestId + "\",\"userId\":\"user-" + random.nextInt(config.users())
+                + "\",\"payload\":\"" + payload() + "\"}";
+
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(config.requestTimeout())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        LoadStats.Outcomes outcomes = duplicate ? stats.duplicates : stats.unique;
+        stats.inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    stats.inFlight.decrementAndGet();
+                    if (error != null) {
+                        Throwable cause = error.getCause() != null ? error.getCause() : error;
+                        outcomes.error(cause instanceof HttpTimeoutException ? "timeout" : cause.getClass().getSimpleName());
+                    } else if (response.statusCode() / 100 == 2) {
+                        outcomes.success.increment();
+                        if (!duplicate) {
+                            stats.recordLatency(System.nanoTime() - scheduledAt);
+                        }
+                    } else {
+                        outcomes.error("http " + response.statusCode());
+                    }
+                });
+    }
+
+    private String payload() {
+        int pick = random.nextInt(totalWeight);
+        for (int i = 0; i < cumulativeWeights.size(); i++) {
+            if (pick < cumulativeWeights.get(i)) {
+                return payloads.get(i);
+            }
+        }
+        return payloads.getLast();
+    }
+}
@@ -0,0 +1,70 @@
+package com.assignment.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcome counters and latency histograms written by the load generator and read interval by interval by the
+ * sampler. Latency is measured from each request's scheduled send time, so time spent queued behind a slow
+ * service counts against it (no coordinated omission).
+ */
+final class LoadStats {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    /** Requests whose ID was not sent before. */
+    final Outcomes unique = new Outcomes();
+    /** Requests deliberately reusing a sent ID; their rejection is expected, not an error. */
+    final Outcomes duplicates = new Outcomes();
+    final LongAdder offered = new LongAdder();
+    final LongAdder dropped = new LongAdder();
+    final AtomicLong inFlight = new AtomicLong();
+
+    /** 2xx latency of unique requests. */
+    private final Recorder latency = new Recorder(MAX_LATENCY_NANOS, 3);
+    private final Histogram totalLatency = new Histogram(MAX_LATENCY_NANOS, 3);
+
+    void recordLatency(long nanos) {
+        latency.recordValue(Math.min(nanos, MAX_LATENCY_NANOS));
+    }
+
+    /**
+     * Returns the latencies recorded since the previous call and adds them to the run total.
+     */
+    synchronized Histogram intervalLatency() {
+        Histogram interval = latency.getIntervalHistogram();
+        totalLatency.add(interval);
+        return interval;
+    }
+
+    synchronized Histogram totalLatency() {
+        return totalLatency.copy();
+    }
+
+    static final class Outcomes {
+        final LongAdder success = new LongAdder();
+        /** Responses by HTTP status for non-2xx, or by exception class for requests without a response. */
+        final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        void error(String kind) {
+            errors.computeIfAbsent(kind, k -> new LongAdder()).increment();
+        }
+
+        long errorCount() {
+            return errors.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+
+        Map<String, Long> errorsByKind() {
+            Map<String, Long> byKind = new TreeMap<>();
+            errors.forEach((kind, count) -> byKind.put(kind, count.sum()));
+            return byKind;
+        }
+    }
+}
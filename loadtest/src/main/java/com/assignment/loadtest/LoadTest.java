@@ -0,0 +1,93 @@
+package com.assignment.loadtest;
+
+import com.assignment.loadtest.MetricsSampler.Sample;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts Service A and Service B locally, offers the configured open-loop load to Service A, keeps sampling
+ * until the services have drained, and writes the report. See {@link LoadTestConfig} for the arguments.
+ */
+@Slf4j
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        log.info("Starting services ({})", config.mode());
+        try (ServiceCluster cluster = ServiceCluster.start(config);
+             ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(clientExecutor)
+                    .build();
+            log.info("Service A at {}, Service B at {}; offering {} over {}",
+                    cluster.serviceAUrl(), cluster.serviceBUrl(), config.stages(), config.loadDuration());
+
+            LoadStats stats = new LoadStats();
+            long start = System.nanoTime();
+            MetricsSampler sampler = new MetricsSampler(client, cluster.serviceAUrl(), cluster.serviceBUrl(), stats, start);
+            ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+            long intervalMs = config.sampleInterval().toMillis();
+            ticker.scheduleAtFixedRate(() -> {
+                try {
+                    logProgress(sampler.sample());
+                } catch (RuntimeException e) {
+                    log.warn("Sampling failed: {}", e.getMessage());
+                }
+            }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+
+            new LoadGenerator(client, cluster.serviceAUrl(), config, stats).run();
+            double loadSeconds = (System.nanoTime() - start) / 1e9;
+            log.info("Load finished after {} s, draining", String.format("%.1f", loadSeconds));
+            awaitDrained(config, stats, sampler);
+            ticker.shutdownNow();
+            ticker.awaitTermination(5, TimeUnit.SECONDS);
+
+            LoadTestReport report = LoadTestReport.of(config, stats, sampler, loadSeconds);
+            report.write(config.reportDir());
+            log.info("{}{}Report written to {}", report.describe(), System.lineSeparator(),
+                    config.reportDir().toAbsolutePath());
+        }
+    }
+
+    /**
+     * Waits until no request is in flight and the last sample shows no INITIATED backlog or pending
+     * compensation, or the drain timeout passes.
+     */
+    private static void awaitDrained(LoadTestConfig config, LoadStats stats, MetricsSampler sampler)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + config.drainTimeout().toNanos();
+        while (System.nanoTime() < deadline) {
+            List<Sample> samples = sampler.samples();
+            if (stats.inFlight.get() == 0 && !samples.isEmpty() && drained(samples.getLast())) {
+                return;
+            }
+            Thread.sleep(config.sampleInterval().toMillis());
+        }
+        log.warn("Services had not drained after {}", config.drainTimeout());
+    }
+
+    private static boolean drained(Sample sample) {
+        return sample.inFlight() == 0
+                && sample.gauges().getOrDefault("a.backlog.initiated", 0.0) == 0
+                && sample.gauges().getOrDefault("a.outbox.pending", 0.0) == 0;
+    }
+
+    private static void logProgress(Sample sample) {
+        log.info(String.format("t=%5.0fs offered=%d ok=%d errors=%d dup=%d dropped=%d in-flight=%d p50=%.1fms p99=%.1fms cb=%s backlog=%s",
+                sample.elapsedSeconds(), sample.offered(), sample.succeeded(), sample.errors(), sample.duplicates(),
+                sample.dropped(), sample.inFlight(), sample.p50Ms(), sample.p99Ms(), sample.circuitBreakerState(),
+                sample.gauges().get("a.backlog.initiated")));
+    }
+}
@@ -0,0 +1,161 @@
+package com.assignment.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Settings of one load test run, parsed from {@code key=value} arguments. Keys starting with {@code a.} or
+ * {@code b.} are passed on to Service A or Service B as Spring properties, e.g.
+ * {@code a.server.tomcat.threads.max=100} or {@code b.spring.datasource.hikari.maximum-pool-size=20}.
+ *
+ * @param mode            {@code in-process} runs both services in this JVM, {@code processes} starts their
+ *                        executable jars as child processes
+ * @param stages          arrival rate stages, run in order
+ * @param poisson         exponential inter-arrival times around the stage rate instead of a fixed interval
+ * @param duplicateRatio  share of requests that reuse a recently sent request ID
+ * @param payloadSizes    payload sizes in bytes with their relative weights
+ * @param users           distinct user IDs requests are spread over
+ * @param maxInFlight     outstanding requests beyond which arrivals are dropped and counted, not sent
+ * @param requestTimeout  client-side timeout of a single request
+ * @param sampleInterval  length of one time series interval
+ * @param drainTimeout    after the last stage, how long to keep sampling until in-flight requests and the
+ *                        recovery backlog reach zero
+ * @param reportDir       directory for {@code report.json}, {@code timeseries.csv} and service logs
+ * @param serviceAJar     Service A's executable jar in {@code processes} mode
+ * @param serviceBJar     Service B's executable jar in {@code processes} mode
+ * @param serviceAProperties extra properties for Service A
+ * @param serviceBProperties extra properties for Service B
+ */
+public record LoadTestConfig(String mode,
+                             List<Stage> stages,
+                             boolean poisson,
+                             double duplicateRatio,
+                             Map<Integer, Integer> payloadSizes,
+                             int users,
+                             int maxInFlight,
+                             Duration requestTimeout,
+                             Duration sampleInterval,
+                             Duration drainTimeout,
+                             Path reportDir,
+                             Path serviceAJar,
+                             Path serviceBJar,
+                             Map<String, String> serviceAProperties,
+                             Map<String, String> serviceBProperties) {
+
+    public static final String IN_PROCESS = "in-process";
+    public static final String PROCESSES = "processes";
+
+    /**
+     * {@code rate} requests per second offered for {@code duration}.
+     */
+    public record Stage(double rate, Duration duration) {
+    }
+
+    public Duration loadDuration() {
+        return stages.stream().map(Stage::duration).reduce(Duration.ZERO, Duration::plus);
+    }
+
+    public static LoadTestConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        Map<String, String> serviceAProperties = new LinkedHashMap<>();
+        Map<String, String> serviceBProperties = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            String key = arg.substring(0, separator);
+            String value = arg.substring(separator + 1);
+            if (key.startsWith("a.")) {
+                serviceAProperties.put(key.substring(2), value);
+            } else if (key.startsWith("b.")) {
+                serviceBProperties.put(key.substring(2), value);
+            } else {
+                options.put(key, value);
+            }
+        }
+
+        String mode = options.getOrDefault("mode", IN_PROCESS);
+        if (!mode.equals(IN_PROCESS) && !mode.equals(PROCESSES)) {
+            throw new IllegalArgumentException("mode must be " + IN_PROCESS + " or " + PROCESSES + " but was: " + mode);
+        }
+        String arrival = options.getOrDefault("arrival", "poisson");
+        if (!arrival.equals("poisson") && !arrival.equals("constant")) {
+            throw new IllegalArgumentException("arrival must be poisson or constant but was: " + arrival);
+        }
+        double duplicateRatio = Double.parseDouble(options.getOrDefault("duplicate-ratio", "0"));
+        if (duplicateRatio < 0 || duplicateRatio > 1) {
+            throw new IllegalArgumentException("duplicate-ratio must be between 0 and 1 but was: " + duplicateRatio);
+        }
+        return new LoadTestConfig(
+                mode,
+                parseStages(options.getOrDefault("rates", "100:60s")),
+                arrival.equals("poisson"),
+                duplicateRatio,
+                parsePayloadSizes(options.getOrDefault("payload-sizes", "256:1")),
+                Integer.parseInt(options.getOrDefault("users", "1000")),
+                Integer.parseInt(options.getOrDefault("max-in-flight", "20000")),
+                parseDuration(options.getOrDefault("request-timeout", "30s")),
+                parseDuration(options.getOrDefault("sample-interval", "1s")),
+                parseDuration(options.getOrDefault("drain-timeout", "60s")),
+                Path.of(options.getOrDefault("report-dir", "target/loadtest-report")),
+                Path.of(options.getOrDefault("service-a-jar", "../service_A/target/service_A-0.0.1-SNAPSHOT-exec.jar")),
+                Path.of(options.getOrDefault("service-b-jar", "../service_B/target/service_B-0.0.1-SNAPSHOT-exec.jar")),
+                serviceAProperties,
+                serviceBProperties);
+    }
+
+    /**
+     * {@code 50:30s,200:2m} offers 50 requests per second for 30 seconds, then 200 per second for two minutes.
+     */
+    static List<Stage> parseStages(String value) {
+        List<Stage> stages = new ArrayList<>();
+        for (String stage : value.split(",")) {
+            String[] parts = stage.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected rate:duration but got: " + stage);
+            }
+            stages.add(new Stage(Double.parseDouble(parts[0]), parseDuration(parts[1])));
+        }
+        return stages;
+    }
+
+    /**
+     * {@code 64:70,1024:25,16384:5} sends 64 byte payloads 70% of the time, 1 KiB 25% and 16 KiB 5%.
+     */
+    static Map<Integer, Integer> parsePayloadSizes(String value) {
+        Map<Integer, Integer> sizes = new LinkedHashMap<>();
+        for (String size : value.split(",")) {
+            String[] parts = size.trim().split(":");
+            int bytes = Integer.parseInt(parts[0]);
+            if (bytes < 1) {
+                throw new IllegalArgumentException("Payload size must be at least 1 byte but was: " + bytes);
+            }
+            sizes.put(bytes, parts.length > 1 ? Integer.parseInt(parts[1]) : 1);
+        }
+        return sizes;
+    }
+
+    /**
+     * Accepts {@code 500ms}, {@code 30s}, {@code 2m} and {@code 1h}.
+     */
+    static Duration parseDuration(String value) {
+        String duration = value.trim().toLowerCase(Locale.ROOT);
+        if (duration.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(duration.substring(0, duration.length() - 2)));
+        }
+        long amount = Long.parseLong(duration.substring(0, duration.length() - 1));
+        return switch (duration.charAt(duration.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Unknown duration unit in: " + value);
+        };
+    }
+}
@@ -0,0 +1,120 @@
+package com.assignment.loadtest;
+
+import com.assignment.loadtest.MetricsSampler.Sample;
+import com.assignment.loadtest.MetricsSampler.Transition;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Summary and time series of a run, written as {@code report.json} and {@code timeseries.csv} into the report
+ * directory. Throughput and latency cover unique requests answered with 2xx; every other outcome of a unique
+ * request counts as an error. Duplicates are reported apart, since Service A is expected to reject them.
+ */
+record LoadTestReport(LoadTestConfig config, Summary summary, List<Sample> timeseries) {
+
+    record Summary(double loadSeconds, long offered, long dropped, long succeeded, double throughputPerSecond,
+                   double errorRate, Map<String, Long> errorsByKind, long duplicatesSucceeded,
+                   Map<String, Long> duplicatesRejectedByKind, Map<String, Double> latencyMs,
+                   List<Transition> circuitBreakerTransitions, Double backlogPeak, Double backlogFinal) {
+    }
+
+    static LoadTestReport of(LoadTestConfig config, LoadStats stats, MetricsSampler sampler, double loadSeconds) {
+        Histogram latency = stats.totalLatency();
+        Map<String, Double> latencyMs = new LinkedHashMap<>();
+        latencyMs.put("p50", MetricsSampler.millis(latency.getValueAtPercentile(50)));
+        latencyMs.put("p90", MetricsSampler.millis(latency.getValueAtPercentile(90)));
+        latencyMs.put("p99", MetricsSampler.millis(latency.getValueAtPercentile(99)));
+        latencyMs.put("p999", MetricsSampler.millis(latency.getValueAtPercentile(99.9)));
+        latencyMs.put("max", MetricsSampler.millis(latency.getMaxValue()));
+
+        List<Sample> samples = sampler.samples();
+        List<Double> backlog = samples.stream()
+                .map(sample -> sample.gauges().get("a.backlog.initiated"))
+                .filter(value -> value != null)
+                .toList();
+
+        long succeeded = stats.unique.success.sum();
+        long errors = stats.unique.errorCount();
+        Summary summary = new Summary(loadSeconds,
+                stats.offered.sum(),
+                stats.dropped.sum(),
+                succeeded,
+                succeeded / loadSeconds,
+                succeeded + errors == 0 ? 0 : (double) errors / (succeeded + errors),
+                stats.unique.errorsByKind(),
+                stats.duplicates.success.sum(),
+                stats.duplicates.errorsByKind(),
+                latencyMs,
+                sampler.transitions(),
+                backlog.stream().max(Double::compare).orElse(null),
+                backlog.isEmpty() ? null : backlog.getLast());
+        return new LoadTestReport(config, summary, samples);
+    }
+
+    void write(Path reportDir) throws IOException {
+        Files.createDirectories(reportDir);
+        new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(reportDir.resolve("report.json").toFile(), this);
+        Files.writeString(reportDir.resolve("timeseries.csv"), csv());
+    }
+
+    private String csv() {
+        List<String> header = new ArrayList<>(List.of("elapsed_s", "offered", "succeeded", "errors", "duplicates",
+                "dropped", "in_flight", "p50_ms", "p99_ms", "p999_ms", "max_ms", "circuit_breaker"));
+        header.addAll(MetricsSampler.GAUGES.keySet());
+        StringWriter csv = new StringWriter();
+        PrintWriter out = new PrintWriter(csv);
+        out.println(String.join(",", header));
+        for (Sample sample : timeseries) {
+            List<String> row = new ArrayList<>(List.of(
+                    format(sample.elapsedSeconds()), String.valueOf(sample.offered()), String.valueOf(sample.succeeded()),
+                    String.valueOf(sample.errors()), String.valueOf(sample.duplicates()), String.valueOf(sample.dropped()),
+                    String.valueOf(sample.inFlight()), format(sample.p50Ms()), format(sample.p99Ms()),
+                    format(sample.p999Ms()), format(sample.maxMs()),
+                    sample.circuitBreakerState() == null ? "" : sample.circuitBreakerState()));
+            MetricsSampler.GAUGES.keySet().forEach(column -> {
+                Double value = sample.gauges().get(column);
+                row.add(value == null ? "" : format(value));
+            });
+            out.println(String.join(",", row));
+        }
+        out.flush();
+        return csv.toString();
+    }
+
+    String describe() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "Offered %d requests in %.1f s, %d dropped by the client (max-in-flight)%n",
+                summary.offered(), summary.loadSeconds(), summary.dropped()));
+        text.append(String.format(Locale.ROOT, "Throughput %.1f req/s, error rate %.2f%% %s%n",
+                summary.throughputPerSecond(), summary.errorRate() * 100, summary.errorsByKind()));
+        text.append(String.format(Locale.ROOT, "Latency ms p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+                summary.latencyMs().get("p50"), summary.latencyMs().get("p90"), summary.latencyMs().get("p99"),
+                summary.latencyMs().get("p999"), summary.latencyMs().get("max")));
+        text.append(String.format(Locale.ROOT, "Duplicates accepted %d, rejected %s%n",
+                summary.duplicatesSucceeded(), summary.duplicatesRejectedByKind()));
+        text.append("Circuit breaker transitions ").append(summary.circuitBreakerTransitions()).append(System.lineSeparator());
+        text.append("Recovery backlog peak ").append(summary.backlogPeak())
+                .append(", at end ").append(summary.backlogFinal());
+        return text.toString();
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
@@ -0,0 +1,167 @@
+package com.assignment.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns the generator's counters into one {@link Sample} per interval and polls both services' actuator
+ * metrics alongside: the recovery backlog, pool and executor saturation, and the state of Service A's
+ * {@code serviceB} circuit breaker. A metric the service does not answer within the timeout is left out of
+ * that interval's sample; a saturated service often shows up that way first.
+ */
+final class MetricsSampler {
+
+    private static final Duration METRIC_TIMEOUT = Duration.ofMillis(500);
+    private static final List<String> CIRCUIT_BREAKER_STATES =
+            List.of("closed", "open", "half_open", "forced_open", "disabled", "metrics_only");
+
+    /** Sample column -> actuator metric path, on Service A ({@code a.}) or Service B ({@code b.}). */
+    static final Map<String, String> GAUGES = gauges();
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String serviceAUrl;
+    private final String serviceBUrl;
+    private final LoadStats stats;
+    private final long startNanos;
+    private final List<Sample> samples = new ArrayList<>();
+    private final List<Transition> transitions = new ArrayList<>();
+    private String circuitBreakerState;
+    private long offered;
+    private long succeeded;
+    private long errors;
+    private long duplicates;
+    private long dropped;
+
+    MetricsSampler(HttpClient client, String serviceAUrl, String serviceBUrl, LoadStats stats, long startNanos) {
+        this.client = client;
+        this.serviceAUrl = serviceAUrl;
+        this.serviceBUrl = serviceBUrl;
+        this.stats = stats;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * One time series point, counters being the change since the previous sample and latencies the 2xx
+     * latencies of unique requests completed in the interval.
+     */
+    record Sample(double elapsedSeconds, long offered, long succeeded, long errors, long duplicates, long dropped,
+                  long inFlight, double p50Ms, double p99Ms, double p999Ms, double maxMs,
+                  String circuitBreakerState, Map<String, Double> gauges) {
+    }
+
+    record Transition(double elapsedSeconds, String from, String to) {
+    }
+
+    private static Map<String, String> gauges() {
+        Map<String, String> gauges = new LinkedHashMap<>();
+        gauges.put("a.backlog.initiated", "saga.backlog?tag=status:INITIATED");
+        gauges.put("a.outbox.pending", "compensation.outbox.depth?tag=status:PENDING");
+        gauges.put("a.tomcat.threads.busy", "tomcat.threads.busy");
+        gauges.put("a.concurrency.limit", "serviceb.concurrency.limit");
+        gauges.put("a.concurrency.in-flight", "serviceb.concurrency.in-flight");
+        gauges.put("a.task-executor.active", "executor.active?tag=name:taskExecutor");
+        gauges.put("a.task-executor.queued", "executor.queued?tag=name:taskExecutor");
+        gauges.put("a.hikari.active", "hikaricp.connections.active");
+        gauges.put("a.hikari.pending", "hikaricp.connections.pending");
+        gauges.put("b.tomcat.threads.busy", "tomcat.threads.busy");
+        gauges.put("b.hikari.active", "hikaricp.connections.active");
+        gauges.put("b.hikari.pending", "hikaricp.connections.pending");
+        return gauges;
+    }
+
+    synchronized Sample sample() {
+        Map<String, CompletableFuture<Double>> pending = new LinkedHashMap<>();
+        GAUGES.forEach((column, metric) -> pending.put(column,
+                fetch((column.startsWith("a.") ? serviceAUrl : serviceBUrl) + "/actuator/metrics/" + metric)));
+        Map<String, CompletableFuture<Double>> states = new LinkedHashMap<>();
+        CIRCUIT_BREAKER_STATES.forEach(state -> states.put(state, fetch(serviceAUrl
+                + "/actuator/metrics/resilience4j.circuitbreaker.state?tag=name:serviceB&tag=state:" + state)));
+
+        Histogram latency = stats.intervalLatency();
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+        long offeredTotal = stats.offered.sum();
+        long succeededTotal = stats.unique.success.sum();
+        long errorsTotal = stats.unique.errorCount();
+        long duplicatesTotal = stats.duplicates.success.sum() + stats.duplicates.errorCount();
+        long droppedTotal = stats.dropped.sum();
+
+        Map<String, Double> gauges = new LinkedHashMap<>();
+        pending.forEach((column, value) -> {
+            Double gauge = value.join();
+            if (gauge != null) {
+                gauges.put(column, gauge);
+            }
+        });
+        String state = null;
+        for (Map.Entry<String, CompletableFuture<Double>> candidate : states.entrySet()) {
+            Double value = candidate.getValue().join();
+            if (value != null && value == 1.0) {
+                state = candidate.getKey();
+            }
+        }
+        if (state != null) {
+            if (circuitBreakerState != null && !state.equals(circuitBreakerState)) {
+                transitions.add(new Transition(elapsedSeconds, circuitBreakerState, state));
+            }
+            circuitBreakerState = state;
+        }
+
+        Sample sample = new Sample(elapsedSeconds,
+                offeredTotal - offered, succeededTotal - succeeded, errorsTotal - errors,
+                duplicatesTotal - duplicates, droppedTotal - dropped, stats.inFlight.get(),
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)),
+                millis(latency.getValueAtPercentile(99.9)), millis(latency.getMaxValue()),
+                state, gauges);
+        offered = offeredTotal;
+        succeeded = succeededTotal;
+        errors = errorsTotal;
+        duplicates = duplicatesTotal;
+        dropped = droppedTotal;
+        samples.add(sample);
+        return sample;
+    }
+
+    synchronized List<Sample> samples() {
+        return List.copyOf(samples);
+    }
+
+    synchronized List<Transition> transitions() {
+        return List.copyOf(transitions);
+    }
+
+    private CompletableFuture<Double> fetch(String url) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(METRIC_TIMEOUT).build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .orTimeout(METRIC_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        return null;
+                    }
+                    try {
+                        JsonNode measurements = objectMapper.readTree(response.body()).path("measurements");
+                        return measurements.isEmpty() ? null : measurements.get(0).path("value").asDouble();
+                    } catch (Exception e) {
+                        return null;
+                    }
+                })
+                .exceptionally(e -> null);
+    }
+
+    static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
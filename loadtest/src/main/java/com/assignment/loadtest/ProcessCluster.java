@@ -0,0 +1,145 @@
+package com.assignment.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Both services as child JVMs started from their executable jars. Each runs in its own directory under the
+ * report directory, where its {@code logs/} and console output ({@code console.log}) end up.
+ */
+@Slf4j
+final class ProcessCluster implements ServiceCluster {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private final Process serviceB;
+    private final Process serviceA;
+    private final String serviceAUrl;
+    private final String serviceBUrl;
+
+    private ProcessCluster(Process serviceB, Process serviceA, String serviceAUrl, String serviceBUrl) {
+        this.serviceB = serviceB;
+        this.serviceA = serviceA;
+        this.serviceAUrl = serviceAUrl;
+        this.serviceBUrl = serviceBUrl;
+    }
+
+    static ProcessCluster start(Map<String, String> serviceAProperties, Map<String, String> serviceBProperties,
+                                LoadTestConfig config) {
+        String serviceBUrl = "http://localhost:" + serviceBProperties.get("server.port");
+        String serviceAUrl = "http://localhost:" + serviceAProperties.get("server.port");
+        Process serviceB = launch(config.serviceBJar(), serviceBProperties, config.reportDir().resolve("service-b"));
+        Process serviceA = null;
+        try {
+            awaitHealthy(serviceB, serviceBUrl);
+            serviceA = launch(config.serviceAJar(), serviceAProperties, config.reportDir().resolve("service-a"));
+            awaitHealthy(serviceA, serviceAUrl);
+            return new ProcessCluster(serviceB, serviceA, serviceAUrl, serviceBUrl);
+        } catch (RuntimeException e) {
+            stop(serviceA);
+            stop(serviceB);
+            throw e;
+        }
+    }
+
+    private static Process launch(Path jar, Map<String, String> properties, Path directory) {
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalArgumentException("Executable jar not found: " + jar.toAbsolutePath()
+                    + "; build it with mvn package or pass its path");
+        }
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-jar");
+        command.add(jar.toAbsolutePath().toString());
+        properties.forEach((key, value) -> command.add("--" + key + "=" + value));
+        try {
+            Files.createDirectories(directory);
+            log.info("Starting {}", jar.getFileName());
+            return new ProcessBuilder(command)
+                    .directory(directory.toFile())
+                    .redirectErrorStream(true)
+                    .redirectOutput(directory.resolve("console.log").toFile())
+                    .start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start " + jar, e);
+        }
+    }
+
+    private static void awaitHealthy(Process process, String baseUrl) {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Service at " + baseUrl + " exited with code " + process.exitValue()
+                        + " during startup; see its console.log");
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for " + baseUrl, e);
+            }
+            sleep(500);
+        }
+        throw new IllegalStateException("Service at " + baseUrl + " was not healthy within " + STARTUP_TIMEOUT);
+    }
+
+    @Override
+    public String serviceAUrl() {
+        return serviceAUrl;
+    }
+
+    @Override
+    public String serviceBUrl() {
+        return serviceBUrl;
+    }
+
+    @Override
+    public void close() {
+        stop(serviceA);
+        stop(serviceB);
+    }
+
+    private static void stop(Process process) {
+        if (process == null) {
+            return;
+        }
+        process.destroy();
+        try {
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
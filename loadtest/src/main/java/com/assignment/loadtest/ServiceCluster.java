@@ -0,0 +1,64 @@
+package com.assignment.loadtest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Service A and Service B running locally on free ports, wired to each other.
+ */
+public interface ServiceCluster extends AutoCloseable {
+
+    String serviceAUrl();
+
+    String serviceBUrl();
+
+    @Override
+    void close();
+
+    static ServiceCluster start(LoadTestConfig config) {
+        int serviceAPort = freePort();
+        int serviceBPort = freePort();
+        int serviceBGrpcPort = freePort();
+
+        Map<String, String> serviceB = defaults();
+        serviceB.put("server.port", String.valueOf(serviceBPort));
+        serviceB.put("grpc.server.port", String.valueOf(serviceBGrpcPort));
+        serviceB.put("service-a.url", "http://localhost:" + serviceAPort);
+        serviceB.putAll(config.serviceBProperties());
+
+        Map<String, String> serviceA = defaults();
+        serviceA.put("server.port", String.valueOf(serviceAPort));
+        serviceA.put("service-b.url", "http://localhost:" + serviceBPort);
+        serviceA.put("service-b.grpc.port", String.valueOf(serviceBGrpcPort));
+        serviceA.putAll(config.serviceAProperties());
+
+        return LoadTestConfig.IN_PROCESS.equals(config.mode())
+                ? InProcessCluster.start(serviceA, serviceB)
+                : ProcessCluster.start(serviceA, serviceB, config);
+    }
+
+    /**
+     * Applied to both services before the {@code a.} and {@code b.} overrides: SQL and per-request logging
+     * off, so log output does not skew the numbers, and Tomcat's thread pool metrics on.
+     */
+    private static Map<String, String> defaults() {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.com.assignment.service_A", "WARN");
+        properties.put("logging.level.com.assignment.service_B", "WARN");
+        properties.put("server.tomcat.mbeanregistry.enabled", "true");
+        return properties;
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No free port available", e);
+        }
+    }
+}
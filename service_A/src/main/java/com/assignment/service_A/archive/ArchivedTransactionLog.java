@@ -0,0 +1,24 @@
+package com.assignment.service_A.archive;
+
+import com.assignment.common.archive.ArchiveEntry;
+import com.assignment.service_A.entity.TransactionLog;
+import com.assignment.service_A.entity.TransactionLog.Status;
+import com.assignment.service_A.entity.TransactionLogDetail;
+
+import java.time.LocalDateTime;
+
+/**
+ * One archived row, written as a line of NDJSON.
+ */
+public record ArchivedTransactionLog(String requestId, String userId, Status status, int retryCount,
+                                     LocalDateTime createdAt, LocalDateTime updatedAt, String errorMessage,
+                                     String details) implements ArchiveEntry {
+
+    public static ArchivedTransactionLog of(TransactionLog transactionLog) {
+        TransactionLogDetail detail = transactionLog.getDetail();
+        return new ArchivedTransactionLog(transactionLog.getRequestId(), transactionLog.getUserId(),
+                transactionLog.getStatus(), transactionLog.getRetryCount(), transactionLog.getCreatedAt(),
+                transactionLog.getUpdatedAt(), detail == null ? null : detail.getErrorMessage(),
+                detail == null ? null : detail.getDetails());
+    }
+}
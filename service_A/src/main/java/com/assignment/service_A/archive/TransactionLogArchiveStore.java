@@ -0,0 +1,48 @@
+package com.assignment.service_A.archive;
+
+import com.assignment.common.archive.ArchiveStore;
+import com.assignment.common.saga.SagaStatistics;
+import com.assignment.service_A.entity.TransactionLog;
+import com.assignment.service_A.entity.TransactionLog.Status;
+import com.assignment.service_A.repository.TransactionLogRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Terminal rows of {@code transaction_logs}, as archived by the {@link com.assignment.common.archive.ArchivalService}.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransactionLogArchiveStore implements ArchiveStore<TransactionLog, ArchivedTransactionLog> {
+
+    private static final List<Status> ARCHIVED_STATUSES = List.of(Status.SUCCESS, Status.FAILED);
+
+    private final TransactionLogRepository transactionLogRepository;
+    private final SagaStatistics<TransactionLog, Status> sagaStatistics;
+
+    @Override
+    public List<TransactionLog> findArchiveChunk(LocalDateTime cutoff, long afterId, int limit) {
+        return transactionLogRepository.findArchiveChunk(ARCHIVED_STATUSES, cutoff, afterId, Limit.of(limit));
+    }
+
+    @Override
+    public long id(TransactionLog transactionLog) {
+        return transactionLog.getId();
+    }
+
+    @Override
+    public ArchivedTransactionLog toEntry(TransactionLog transactionLog) {
+        return ArchivedTransactionLog.of(transactionLog);
+    }
+
+    @Override
+    public List<TransactionLog> deleteArchived(List<TransactionLog> transactionLogs) {
+        List<TransactionLog> deleted = transactionLogRepository.deleteArchived(transactionLogs);
+        sagaStatistics.removed(deleted);
+        return deleted;
+    }
+}
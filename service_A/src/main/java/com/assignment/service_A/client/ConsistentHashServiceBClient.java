@@ -0,0 +1,355 @@
+package com.assignment.service_A.client;
+
+import com.assignment.service_A.dto.RequestDTO;
+import com.assignment.service_A.dto.ResponseDTO;
+import com.assignment.service_A.exception.ServiceAExceptions;
+import com.google.common.hash.Hashing;
+import feign.Request;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.cloud.openfeign.FeignClientBuilder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link ServiceBClient} over several Service B instances ({@code service-b.routing.instances}), used instead of the
+ * single-URL Feign client when {@code service-b.routing.enabled} is set. Request IDs are placed on a consistent-hash
+ * ring with {@code service-b.routing.virtual-nodes} points per instance, so every process, status and compensate
+ * call for an ID goes to the same instance and finds its status cache, dedup filter and log there; adding or removing
+ * an instance only moves the IDs of its own ring segments. Batches are split by instance and the parts sent in
+ * parallel.
+ * <p>
+ * An instance is skipped while its {@code /actuator/health/readiness} probe fails, and a call that cannot connect to
+ * it marks it down until the next successful probe; either way its IDs go to the next instance on the ring. Only
+ * calls that never reached an instance fail over, so a request is never processed twice because of a slow reply.
+ * <p>
+ * Since an ID that failed over is held by an instance other than its owner, status and compensate calls answered
+ * NOT_FOUND are sent on along the ring, and report NOT_FOUND only once every instance has. If an instance could not
+ * be reached, the saga may live there, so the call fails instead and is retried by recovery or the outbox.
+ * <p>
+ * Probes run on their own thread every {@code service-b.routing.health-check-interval-ms}, so a slow recovery or
+ * archival run on the shared scheduler cannot delay bringing an instance back.
+ */
+@Component
+@Primary
+@ConditionalOnExpression("${service-b.routing.enabled:false} and '${service-b.transport:http}' == 'http'")
+@Slf4j
+public class ConsistentHashServiceBClient implements ServiceBClient {
+
+    private static final String NOT_FOUND = "NOT_FOUND";
+
+    private final List<Instance> instances;
+    private final NavigableMap<Long, Instance> ring = new TreeMap<>();
+    private final HttpClient healthClient;
+    private final Duration healthTimeout;
+    private final ExecutorService batchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService healthChecks = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("ServiceB-Health").daemon().factory());
+    private final long healthCheckIntervalMs;
+
+    public ConsistentHashServiceBClient(ApplicationContext applicationContext,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${service-b.routing.instances}") List<String> urls,
+                                        @Value("${service-b.routing.virtual-nodes:100}") int virtualNodes,
+                                        @Value("${service-b.routing.health-check-interval-ms:2000}") long healthCheckIntervalMs,
+                                        @Value("${service-b.routing.health-timeout-ms:1000}") long healthTimeoutMs) {
+        if (urls.isEmpty()) {
+            throw new IllegalStateException("service-b.routing.instances lists no Service B instances");
+        }
+        FeignClientBuilder feignClients = new FeignClientBuilder(applicationContext);
+        List<Instance> built = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            String url = urls.get(i).strip();
+            // Each instance gets its own Feign context, configured like serviceBClient by the default client config
+            Instance instance = new Instance(url,
+                    feignClients.forType(ServiceBClient.class, "serviceB-" + i).url(url).build());
+            built.add(instance);
+            for (int point = 0; point < virtualNodes; point++) {
+                ring.put(hash(url + "#" + point), instance);
+            }
+            Gauge.builder("service-b.routing.healthy", instance, node -> node.healthy ? 1 : 0)
+                    .tag("instance", url)
+                    .description("Whether requests are routed to this Service B instance")
+                    .register(meterRegistry);
+        }
+        this.instances = List.copyOf(built);
+        this.healthTimeout = Duration.ofMillis(healthTimeoutMs);
+        this.healthClient = HttpClient.newBuilder().connectTimeout(healthTimeout).build();
+        this.healthCheckIntervalMs = healthCheckIntervalMs;
+        log.info("Routing Service B calls by request ID over {} instances: {}", instances.size(), urls);
+    }
+
+    @PostConstruct
+    public void startHealthChecks() {
+        healthChecks.scheduleWithFixedDelay(this::checkHealth, 0, healthCheckIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        healthChecks.shutdownNow();
+        batchExecutor.shutdownNow();
+    }
+
+    @Override
+    public ResponseDTO processTransaction(RequestDTO requestDTO) {
+        return route(requestDTO.getRequestId(), client -> client.processTransaction(requestDTO));
+    }
+
+    @Override
+    public ResponseDTO processTransaction(RequestDTO requestDTO, Request.Options options) {
+        return route(requestDTO.getRequestId(), client -> client.processTransaction(requestDTO, options));
+    }
+
+    @Override
+    public List<ResponseDTO> processTransactions(List<RequestDTO> requestDTOs) {
+        return routeBatch(requestDTOs, RequestDTO::getRequestId, ServiceBClient::processTransactions, false);
+    }
+
+    @Override
+    public ResponseDTO compensateTransaction(String requestId) {
+        return lookup(requestId, client -> client.compensateTransaction(requestId));
+    }
+
+    @Override
+    public ResponseDTO getTransactionStatus(String requestId) {
+        return lookup(requestId, client -> client.getTransactionStatus(requestId));
+    }
+
+    @Override
+    public List<ResponseDTO> getTransactionStatuses(List<String> requestIds) {
+        return routeBatch(requestIds, Function.identity(), ServiceBClient::getTransactionStatuses, true);
+    }
+
+    /**
+     * Probes every instance's readiness, which brings back instances marked down by a failed call and takes out
+     * those still starting up or recovering.
+     */
+    void checkHealth() {
+        for (Instance instance : instances) {
+            HttpRequest probe = HttpRequest.newBuilder(URI.create(instance.url + "/actuator/health/readiness"))
+                    .timeout(healthTimeout)
+                    .GET()
+                    .build();
+            healthClient.sendAsync(probe, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, e) -> instance.setHealthy(e == null && response.statusCode() == 200,
+                            e == null ? "readiness returned " + response.statusCode() : e.toString()));
+        }
+    }
+
+    private <T> T route(String requestId, Function<ServiceBClient, T> call) {
+        RuntimeException unreachable = null;
+        for (Instance instance : candidates(requestId, Set.of(), true)) {
+            try {
+                return call.apply(instance.client);
+            } catch (RuntimeException e) {
+                if (!neverReached(e)) {
+                    throw e;
+                }
+                instance.setHealthy(false, e.getMessage());
+                unreachable = e;
+            }
+        }
+        throw new ServiceAExceptions("No Service B instance reachable for requestId: " + requestId, unreachable);
+    }
+
+    /**
+     * Makes a call about an existing saga on each instance in turn until one holds it.
+     */
+    private ResponseDTO lookup(String requestId, Function<ServiceBClient, ResponseDTO> call) {
+        ResponseDTO notFound = null;
+        RuntimeException unreachable = null;
+        for (Instance instance : candidates(requestId, Set.of(), true)) {
+            try {
+                ResponseDTO response = call.apply(instance.client);
+                if (!NOT_FOUND.equals(response.getStatus())) {
+                    return response;
+                }
+                notFound = response;
+            } catch (RuntimeException e) {
+                if (!neverReached(e)) {
+                    throw e;
+                }
+                instance.setHealthy(false, e.getMessage());
+                unreachable = e;
+            }
+        }
+        if (unreachable != null) {
+            throw new ServiceAExceptions("Service B instance that may hold requestId: " + requestId
+                    + " is not reachable", unreachable);
+        }
+        return notFound;
+    }
+
+    /**
+     * Sends each item to the first instance for its ID and puts the responses back in the order of the items. Parts
+     * sent to an instance that could not be reached are split again over the remaining ones. With {@code lookup},
+     * items answered NOT_FOUND are sent on to the next instance until every instance has answered so.
+     */
+    private <I> List<ResponseDTO> routeBatch(List<I> items, Function<I, String> requestId,
+                                             BiFunction<ServiceBClient, List<I>, List<ResponseDTO>> call,
+                                             boolean lookup) {
+        ResponseDTO[] responses = new ResponseDTO[items.size()];
+        List<Integer> pending = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            pending.add(i);
+        }
+        Set<Instance> unreachable = new HashSet<>();
+        Map<Integer, Set<Instance>> answeredNotFound = new HashMap<>();
+        long remainingMs = ServiceBDeadline.remainingMs(-1);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(remainingMs);
+
+        while (!pending.isEmpty()) {
+            Map<Instance, List<Integer>> parts = new LinkedHashMap<>();
+            for (int index : pending) {
+                Set<Instance> notFound = answeredNotFound.getOrDefault(index, Set.of());
+                Set<Instance> excluded = new HashSet<>(unreachable);
+                excluded.addAll(notFound);
+                List<Instance> candidates = candidates(requestId.apply(items.get(index)), excluded, true);
+                if (candidates.isEmpty()) {
+                    if (notFound.size() == instances.size()) {
+                        continue;
+                    }
+                    throw new ServiceAExceptions("No Service B instance reachable for " + pending.size()
+                            + " requests of a batch of " + items.size());
+                }
+                parts.computeIfAbsent(candidates.get(0), instance -> new ArrayList<>()).add(index);
+            }
+
+            Map<Instance, CompletableFuture<List<ResponseDTO>>> calls = new LinkedHashMap<>();
+            parts.forEach((instance, indexes) -> {
+                List<I> part = indexes.stream().map(items::get).toList();
+                // The caller's deadline is thread-bound, so it is handed over to the thread sending the part
+                Supplier<List<ResponseDTO>> send = () -> call.apply(instance.client, part);
+                calls.put(instance, CompletableFuture.supplyAsync(
+                        remainingMs < 0 ? send : () -> ServiceBDeadline.call(deadline, send), batchExecutor));
+            });
+
+            pending = new ArrayList<>();
+            for (Map.Entry<Instance, CompletableFuture<List<ResponseDTO>>> entry : calls.entrySet()) {
+                Instance instance = entry.getKey();
+                List<Integer> indexes = parts.get(instance);
+                try {
+                    List<ResponseDTO> partResponses = entry.getValue().join();
+                    if (partResponses.size() != indexes.size()) {
+                        throw new ServiceAExceptions("Service B instance " + instance.url + " returned "
+                                + partResponses.size() + " results for " + indexes.size() + " requests");
+                    }
+                    for (int i = 0; i < indexes.size(); i++) {
+                        ResponseDTO response = partResponses.get(i);
+                        responses[indexes.get(i)] = response;
+                        if (lookup && NOT_FOUND.equals(response.getStatus())) {
+                            answeredNotFound.computeIfAbsent(indexes.get(i), index -> new HashSet<>()).add(instance);
+                            pending.add(indexes.get(i));
+                        }
+                    }
+                } catch (CompletionException e) {
+                    RuntimeException cause = e.getCause() instanceof RuntimeException runtime ? runtime : e;
+                    if (!neverReached(cause)) {
+                        throw cause;
+                    }
+                    instance.setHealthy(false, cause.getMessage());
+                    unreachable.add(instance);
+                    pending.addAll(indexes);
+                }
+            }
+        }
+        return Arrays.asList(responses);
+    }
+
+    /**
+     * Distinct instances in ring order from the ID's position, the first of which owns the ID. With
+     * {@code healthyFirst}, healthy ones come first and instances marked down are still tried last rather than
+     * failing the call outright.
+     */
+    private List<Instance> candidates(String requestId, Set<Instance> excluded, boolean healthyFirst) {
+        long position = hash(requestId == null ? "" : requestId);
+        Set<Instance> healthy = new LinkedHashSet<>();
+        Set<Instance> down = new LinkedHashSet<>();
+        for (Instance instance : ring.tailMap(position, true).values()) {
+            (instance.healthy || !healthyFirst ? healthy : down).add(instance);
+        }
+        for (Instance instance : ring.headMap(position, false).values()) {
+            (instance.healthy || !healthyFirst ? healthy : down).add(instance);
+        }
+        healthy.addAll(down);
+        healthy.removeAll(excluded);
+        return List.copyOf(healthy);
+    }
+
+    /**
+     * Whether the call failed before connecting, so Service B cannot have seen it.
+     */
+    private static boolean neverReached(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof NoRouteToHostException
+                    || cause instanceof UnknownHostException || cause instanceof HttpConnectTimeoutException
+                    || cause instanceof org.apache.hc.client5.http.ConnectTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long hash(String key) {
+        return Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asLong();
+    }
+
+    private static final class Instance {
+        private final String url;
+        private final ServiceBClient client;
+        private volatile boolean healthy = true;
+
+        private Instance(String url, ServiceBClient client) {
+            this.url = url;
+            this.client = client;
+        }
+
+        void setHealthy(boolean healthy, String reason) {
+            if (this.healthy != healthy) {
+                if (healthy) {
+                    log.info("Service B instance {} is back, routing its requests to it again", url);
+                } else {
+                    log.warn("Service B instance {} is down, routing its requests to the next instance. Reason: {}", url, reason);
+                }
+            }
+            this.healthy = healthy;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.assignment.service_A.client;
+
+import com.assignment.grpc.serviceb.CompensateRequest;
+import com.assignment.grpc.serviceb.ProcessBatchRequest;
+import com.assignment.grpc.serviceb.ProcessRequest;
+import com.assignment.grpc.serviceb.ServiceBGrpc;
+import com.assignment.grpc.serviceb.StatusBatchRequest;
+import com.assignment.grpc.serviceb.StatusRequest;
+import com.assignment.grpc.serviceb.TransactionBatchResponse;
+import com.assignment.grpc.serviceb.TransactionResponse;
+import com.assignment.service_A.dto.RequestDTO;
+import com.assignment.service_A.dto.ResponseDTO;
+import com.assignment.service_A.exception.ServiceAExceptions;
+import feign.Request;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.stub.StreamObserver;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * {@link ServiceBClient} over gRPC, used instead of the Feign client when {@code service-b.transport=grpc}.
+ * All {@code processTransaction} calls share one long-lived {@code ProcessStream} on a single HTTP/2 connection:
+ * each request carries a correlation ID and its caller waits for the response with that ID, so up to
+ * {@code service-b.grpc.max-in-flight} requests are outstanding at once without a connection per request.
+ * If the stream fails, the requests in flight on it fail and the next call opens a new stream. The other
+ * operations are unary calls with a deadline of {@code service-b.grpc.deadline-ms}, or what is left of the
+ * caller's {@link ServiceBDeadline}, which gRPC passes on to Service B; streamed requests carry theirs in
+ * {@code timeout_ms}.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(prefix = "service-b", name = "transport", havingValue = "grpc")
+@Slf4j
+public class GrpcServiceBClient implements ServiceBClient {
+
+    private static final String ERROR = "ERROR";
+
+    private final ManagedChannel channel;
+    private final ServiceBGrpc.ServiceBStub asyncStub;
+    private final ServiceBGrpc.ServiceBBlockingStub blockingStub;
+    private final Semaphore inFlightPermits;
+    private final long deadlineMs;
+    private final AtomicLong correlationIds = new AtomicLong();
+
+    private ProcessStream processStream; // guarded by this
+
+    public GrpcServiceBClient(@Value("${service-b.grpc.host:localhost}") String host,
+                              @Value("${service-b.grpc.port:9081}") int port,
+                              @Value("${service-b.grpc.max-in-flight:256}") int maxInFlight,
+                              @Value("${service-b.grpc.deadline-ms:5000}") long deadlineMs,
+                              @Value("${service-b.grpc.keep-alive-seconds:30}") long keepAliveSeconds) {
+        this.channel = NettyChannelBuilder.forAddress(host, port)
+                .usePlaintext()
+                .keepAliveTime(keepAliveSeconds, TimeUnit.SECONDS)
+                .keepAliveWithoutCalls(true)
+                .build();
+        this.asyncStub = ServiceBGrpc.newStub(channel);
+        this.blockingStub = ServiceBGrpc.newBlockingStub(channel);
+        this.inFlightPermits = new Semaphore(maxInFlight);
+        this.deadlineMs = deadlineMs;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        synchronized (this) {
+            if (processStream != null) {
+                processStream.halfClose();
+            }
+        }
+        channel.shutdown();
+        if (!channel.awaitTermination(5, TimeUnit.SECONDS)) {
+            channel.shutdownNow();
+        }
+    }
+
+    @Override
+    public ResponseDTO processTransaction(RequestDTO requestDTO) {
+        return process(requestDTO, ServiceBDeadline.remainingMs(deadlineMs));
+    }
+
+    @Override
+    public ResponseDTO processTransaction(RequestDTO requestDTO, Request.Options options) {
+        return process(requestDTO, options.readTimeoutMillis());
+    }
+
+    @Override
+    public List<ResponseDTO> processTransactions(List<RequestDTO> requestDTOs) {
+        ProcessBatchRequest.Builder request = ProcessBatchRequest.newBuilder();
+        requestDTOs.forEach(requestDTO -> request.addRequests(toProto(requestDTO, 0, 0)));
+        return toDtos(call(() -> stub().processBatch(request.build())));
+    }
+
+    @Override
+    public ResponseDTO compensateTransaction(String requestId) {
+        return toDto(call(() -> stub().compensate(CompensateRequest.newBuilder().setRequestId(requestId).build())));
+    }
+
+    @Override
+    public ResponseDTO getTransactionStatus(String requestId) {
+        return toDto(call(() -> stub().getStatus(StatusRequest.newBuilder().setRequestId(requestId).build())));
+    }
+
+    @Override
+    public List<ResponseDTO> getTransactionStatuses(List<String> requestIds) {
+        return toDtos(call(() -> stub().getStatuses(StatusBatchRequest.newBuilder().addAllRequestIds(requestIds).build())));
+    }
+
+    private ResponseDTO process(RequestDTO requestDTO, long timeoutMs) {
+        long correlationId = correlationIds.incrementAndGet();
+        ProcessStream stream = null;
+        boolean acquired = false;
+        try {
+            if (!inFlightPermits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new ServiceAExceptions("Too many requests in flight to Service B, rejecting requestId: "
+                        + requestDTO.getRequestId());
+            }
+            acquired = true;
+            stream = currentStream();
+            TransactionResponse response = stream.send(toProto(requestDTO, correlationId, timeoutMs)).get(timeoutMs, TimeUnit.MILLISECONDS);
+            if (ERROR.equals(response.getStatus())) {
+                throw new ServiceAExceptions("Service B failed to process requestId: " + requestDTO.getRequestId()
+                        + ". Error: " + response.getMessage());
+            }
+            return toDto(response);
+        } catch (TimeoutException e) {
+            stream.abandon(correlationId);
+            throw new ServiceAExceptions("Timed out after " + timeoutMs + " ms waiting for Service B", e);
+        } catch (ExecutionException e) {
+            throw new ServiceAExceptions("Service B call failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceAExceptions("Interrupted while waiting for Service B", e);
+        } finally {
+            if (acquired) {
+                inFlightPermits.release();
+            }
+        }
+    }
+
+    private synchronized ProcessStream currentStream() {
+        if (processStream == null || processStream.closed) {
+            processStream = new ProcessStream();
+        }
+        return processStream;
+    }
+
+    private ServiceBGrpc.ServiceBBlockingStub stub() {
+        return blockingStub.withDeadlineAfter(ServiceBDeadline.remainingMs(deadlineMs), TimeUnit.MILLISECONDS);
+    }
+
+    private static <T> T call(Supplier<T> rpc) {
+        try {
+            return rpc.get();
+        } catch (StatusRuntimeException e) {
+            throw new ServiceAExceptions("Service B call failed: " + e.getStatus(), e);
+        }
+    }
+
+    private static ProcessRequest toProto(RequestDTO requestDTO, long correlationId, long timeoutMs) {
+        return ProcessRequest.newBuilder()
+                .setRequestId(nullToEmpty(requestDTO.getRequestId()))
+                .setPayload(nullToEmpty(requestDTO.getPayload()))
+                .setUserId(nullToEmpty(requestDTO.getUserId()))
+                .setCorrelationId(correlationId)
+                .setTimeoutMs(timeoutMs)
+                .build();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static ResponseDTO toDto(TransactionResponse response) {
+        return new ResponseDTO(response.getStatus(), response.getRequestId(), response.getMessage());
+    }
+
+    private static List<ResponseDTO> toDtos(TransactionBatchResponse response) {
+        return response.getResponsesList().stream().map(GrpcServiceBClient::toDto).toList();
+    }
+
+    /**
+     * One {@code ProcessStream} call. Requests are written under a lock since a gRPC stream observer is not
+     * thread-safe; responses are matched to their callers by correlation ID.
+     */
+    private final class ProcessStream implements StreamObserver<TransactionResponse> {
+
+        private final Map<Long, CompletableFuture<TransactionResponse>> inFlight = new ConcurrentHashMap<>();
+        private final StreamObserver<ProcessRequest> requests;
+        private volatile boolean closed; // written under the requests lock
+
+        ProcessStream() {
+            this.requests = asyncStub.processStream(this);
+        }
+
+        CompletableFuture<TransactionResponse> send(ProcessRequest request) {
+            CompletableFuture<TransactionResponse> response = new CompletableFuture<>();
+            synchronized (requests) {
+                if (closed) {
+                    response.completeExceptionally(Status.UNAVAILABLE
+                            .withDescription("Process stream to Service B is closed").asRuntimeException());
+                    return response;
+                }
+                inFlight.put(request.getCorrelationId(), response);
+                requests.onNext(request);
+            }
+            return response;
+        }
+
+        void halfClose() {
+            synchronized (requests) {
+                if (!closed) {
+                    closed = true;
+                    requests.onCompleted();
+                }
+            }
+        }
+
+        void abandon(long correlationId) {
+            inFlight.remove(correlationId);
+        }
+
+        @Override
+        public void onNext(TransactionResponse response) {
+            CompletableFuture<TransactionResponse> caller = inFlight.remove(response.getCorrelationId());
+            if (caller != null) {
+                caller.complete(response);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            log.warn("Process stream to Service B failed, {} requests in flight. Error: {}", inFlight.size(), t.getMessage());
+            close(t);
+        }
+
+        @Override
+        public void onCompleted() {
+            close(Status.UNAVAILABLE.withDescription("Process stream closed by Service B").asRuntimeException());
+        }
+
+        private void close(Throwable cause) {
+            synchronized (requests) {
+                closed = true;
+            }
+            // No request is added once closed is set, so this fails every caller still waiting on the stream
+            inFlight.values().forEach(caller -> caller.completeExceptionally(cause));
+            inFlight.clear();
+        }
+    }
+}
@@ -2,18 +2,39 @@ package com.assignment.service_A.client;
 
 import com.assignment.service_A.dto.RequestDTO;
 import com.assignment.service_A.dto.ResponseDTO;
+import feign.Request;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
 
-@FeignClient(name = "serviceBClient", url = "${service-b.url}")
+import java.util.List;
+
+/**
+ * Calls to Service B. The Feign implementation talks to the REST API; with {@code service-b.transport=grpc}
+ * {@link GrpcServiceBClient} takes precedence, and with {@code service-b.routing.enabled}
+ * {@link ConsistentHashServiceBClient} spreads the REST calls over several instances.
+ */
+@FeignClient(name = "serviceBClient", url = "${service-b.url}", primary = false)
 public interface ServiceBClient {
 
     @PostMapping("/api/serviceB/process")
     ResponseDTO processTransaction(@RequestBody RequestDTO requestDTO);
 
+    /**
+     * Same as {@link #processTransaction(RequestDTO)} with per-call connect/read timeouts, so a caller can cap
+     * the call at its own remaining time budget.
+     */
+    @PostMapping("/api/serviceB/process")
+    ResponseDTO processTransaction(@RequestBody RequestDTO requestDTO, Request.Options options);
+
+    @PostMapping("/api/serviceB/process/batch")
+    List<ResponseDTO> processTransactions(@RequestBody List<RequestDTO> requestDTOs);
+
     @PostMapping("/api/compensation/{requestId}")
-    void compensateTransaction(@PathVariable String requestId);
+    ResponseDTO compensateTransaction(@PathVariable String requestId);
 
     @GetMapping("/api/serviceB/status/{requestId}")
     ResponseDTO getTransactionStatus(@PathVariable("requestId") String requestId);
+
+    @PostMapping("/api/serviceB/status/batch")
+    List<ResponseDTO> getTransactionStatuses(@RequestBody List<String> requestIds);
 }
\ No newline at end of file
@@ -0,0 +1,211 @@
+package com.assignment.service_A.client;
+
+import com.assignment.service_A.exception.DeadlineExceededException;
+import com.assignment.service_A.exception.ServiceAExceptions;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive limit on concurrent calls to Service B, so that overload is shed with a 503 instead of being
+ * rejected by the {@code serviceBCallExecutor}, whose threads and queue bound {@code max-limit}. The limit
+ * follows a gradient algorithm: a short-term average of Service B's response time is compared with a long-term
+ * one, and while the short one stays within {@code rtt-tolerance} of the long one the limit grows by about its
+ * square root per sample; once Service B starts queueing and the short-term average rises, the limit shrinks in
+ * proportion, down to half per sample. Calls that time out cut the limit by {@code backoff-ratio}. Both moves
+ * are smoothed by {@code smoothing}.
+ * <p>
+ * Callers take a {@link Permit} before starting a saga and report how the Service B call ended on it once the
+ * call itself has ended, not when the caller gave up waiting; a request that gets no permit fails fast with
+ * {@link ServiceAExceptions}.
+ */
+@Component
+@Slf4j
+public class ServiceBConcurrencyLimiter {
+
+    /** Samples the long-term average roughly spans, and the short-term one. */
+    private static final int LONG_WINDOW = 600;
+    private static final int SHORT_WINDOW = 10;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+
+    private volatile double limit;
+    private double longRttNanos; // guarded by this
+    private double shortRttNanos; // guarded by this
+
+    public ServiceBConcurrencyLimiter(MeterRegistry meterRegistry,
+                                      AsyncTaskExecutor serviceBCallExecutor,
+                                      @Value("${service-b.limiter.enabled:true}") boolean enabled,
+                                      @Value("${service-b.limiter.initial-limit:20}") int initialLimit,
+                                      @Value("${service-b.limiter.min-limit:5}") int minLimit,
+                                      @Value("${service-b.limiter.max-limit:200}") int maxLimit,
+                                      @Value("${service-b.limiter.smoothing:0.2}") double smoothing,
+                                      @Value("${service-b.limiter.rtt-tolerance:1.5}") double rttTolerance,
+                                      @Value("${service-b.limiter.backoff-ratio:0.9}") double backoffRatio) {
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = Math.min(maxLimit, callCapacity(serviceBCallExecutor));
+        if (enabled && this.maxLimit < maxLimit) {
+            log.warn("service-b.limiter.max-limit {} exceeds the Service B call pool's threads plus queue, using {}",
+                    maxLimit, this.maxLimit);
+        }
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(initialLimit, this.maxLimit));
+
+        Gauge.builder("serviceb.concurrency.limit", this, limiter -> limiter.limit)
+                .description("Current limit on concurrent calls to Service B")
+                .register(meterRegistry);
+        Gauge.builder("serviceb.concurrency.in-flight", inFlight, AtomicInteger::get)
+                .description("Calls to Service B holding a permit")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("serviceb.concurrency.rejected")
+                .description("Requests shed because the Service B concurrency limit was reached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a permit for one call to Service B, or throws {@link ServiceAExceptions} if the limit is reached.
+     */
+    public Permit acquire(String requestId) {
+        if (!enabled) {
+            return new Permit(System.nanoTime(), false);
+        }
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                throw new ServiceAExceptions("Service B is at its concurrency limit (" + (int) limit
+                        + "), rejecting requestId: " + requestId);
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(System.nanoTime(), true);
+            }
+        }
+    }
+
+    /**
+     * Calls the executor can take before it rejects one; a virtual-thread executor takes any number.
+     */
+    private static int callCapacity(AsyncTaskExecutor executor) {
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            return pool.getMaxPoolSize() + pool.getQueueCapacity();
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtCompletion) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+            shortRttNanos = rttNanos;
+        } else {
+            longRttNanos += (rttNanos - longRttNanos) / LONG_WINDOW;
+            shortRttNanos += (rttNanos - shortRttNanos) / SHORT_WINDOW;
+        }
+        // After a sustained shift in response time, let the baseline catch up rather than shrinking forever
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / shortRttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        if (target > limit && inFlightAtCompletion * 2 < limit) {
+            // Not enough traffic to tell whether a higher limit would hold
+            return;
+        }
+        update(limit * (1 - smoothing) + target * smoothing);
+    }
+
+    private synchronized void onTimeout() {
+        update(limit * (1 - smoothing) + limit * backoffRatio * smoothing);
+    }
+
+    private void update(double newLimit) {
+        double clamped = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        if ((int) clamped != (int) limit) {
+            log.debug("Service B concurrency limit {} -> {}", (int) limit, (int) clamped);
+        }
+        limit = clamped;
+    }
+
+    private static boolean isTimeout(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException || cause instanceof DeadlineExceededException
+                    || cause instanceof SocketTimeoutException
+                    || cause instanceof HttpTimeoutException
+                    || (cause instanceof StatusRuntimeException status
+                    && status.getStatus().getCode() == Status.Code.DEADLINE_EXCEEDED)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * One admitted call. Exactly one of {@link #onSuccess()}, {@link #onFailure(Throwable)} or {@link #release()}
+     * takes effect; later calls are ignored.
+     */
+    public final class Permit {
+
+        private final long startNanos;
+        private final AtomicBoolean held;
+
+        private Permit(long startNanos, boolean held) {
+            this.startNanos = startNanos;
+            this.held = new AtomicBoolean(held);
+        }
+
+        /**
+         * Service B answered; its response time feeds the limit.
+         */
+        public void onSuccess() {
+            if (held.compareAndSet(true, false)) {
+                int current = inFlight.getAndDecrement();
+                onSample(System.nanoTime() - startNanos, current);
+            }
+        }
+
+        /**
+         * The call failed. Timeouts lower the limit; other errors, which say nothing about Service B's load,
+         * only release the permit.
+         */
+        public void onFailure(Throwable error) {
+            if (held.compareAndSet(true, false)) {
+                inFlight.decrementAndGet();
+                if (isTimeout(error)) {
+                    onTimeout();
+                }
+            }
+        }
+
+        /**
+         * Service B was never called, e.g. because the request is a duplicate.
+         */
+        public void release() {
+            if (held.compareAndSet(true, false)) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
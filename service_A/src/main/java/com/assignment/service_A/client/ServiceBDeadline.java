@@ -0,0 +1,69 @@
+package com.assignment.service_A.client;
+
+import com.assignment.service_A.exception.DeadlineExceededException;
+import feign.Request;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Deadline for the Service B calls made on the current thread. Every call tells Service B how much of it is
+ * left, in the {@value #HEADER} header over REST or the {@code timeout_ms} field over gRPC, so Service B can
+ * drop work Service A has stopped waiting for. Calls made outside {@link #call(long, Supplier)} send the
+ * client's default read timeout instead, since that is how long Service A waits for them.
+ */
+public final class ServiceBDeadline {
+
+    public static final String HEADER = "X-Request-Timeout-Ms";
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private ServiceBDeadline() {
+    }
+
+    /**
+     * Runs the call with a deadline of {@code deadlineNanos} on the {@link System#nanoTime()} clock, or the
+     * enclosing deadline if that ends earlier.
+     */
+    public static <T> T call(long deadlineNanos, Supplier<T> call) {
+        Long enclosing = DEADLINE.get();
+        DEADLINE.set(enclosing == null || deadlineNanos - enclosing < 0 ? deadlineNanos : enclosing);
+        try {
+            return call.get();
+        } finally {
+            if (enclosing == null) {
+                DEADLINE.remove();
+            } else {
+                DEADLINE.set(enclosing);
+            }
+        }
+    }
+
+    /**
+     * Milliseconds left before the current deadline, never negative, or {@code defaultMs} if there is none.
+     */
+    public static long remainingMs(long defaultMs) {
+        Long deadline = DEADLINE.get();
+        if (deadline == null) {
+            return defaultMs;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    /**
+     * Feign timeouts that end the call at the current deadline.
+     *
+     * @throws DeadlineExceededException if the deadline has already passed
+     * @throws IllegalStateException if no deadline is set
+     */
+    public static Request.Options options(String requestId) {
+        if (DEADLINE.get() == null) {
+            throw new IllegalStateException("No Service B deadline set for requestId: " + requestId);
+        }
+        long remainingMs = remainingMs(0);
+        if (remainingMs == 0) {
+            throw new DeadlineExceededException("Deadline passed before calling Service B for requestId: " + requestId);
+        }
+        return new Request.Options(remainingMs, TimeUnit.MILLISECONDS, remainingMs, TimeUnit.MILLISECONDS, true);
+    }
+}
@@ -0,0 +1,25 @@
+package com.assignment.service_A.client;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the {@value ServiceBDeadline#HEADER} header to every Feign call to Service B.
+ */
+@Component
+public class ServiceBDeadlineInterceptor implements RequestInterceptor {
+
+    private final long defaultTimeoutMs;
+
+    public ServiceBDeadlineInterceptor(
+            @Value("${spring.cloud.openfeign.client.config.default.readTimeout:5000}") long defaultTimeoutMs) {
+        this.defaultTimeoutMs = defaultTimeoutMs;
+    }
+
+    @Override
+    public void apply(RequestTemplate template) {
+        template.header(ServiceBDeadline.HEADER, Long.toString(ServiceBDeadline.remainingMs(defaultTimeoutMs)));
+    }
+}
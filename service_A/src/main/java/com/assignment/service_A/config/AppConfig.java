@@ -1,18 +1,46 @@
 package com.assignment.service_A.config;
 
+import com.assignment.common.lanes.LiveTrafficMonitor;
+import com.assignment.common.recovery.RecoveryProgress;
+import com.assignment.common.recovery.RecoveryReadinessHealthIndicator;
+import com.assignment.common.saga.SagaStatistics;
+import com.assignment.service_A.entity.TransactionLog;
+import com.assignment.service_A.entity.TransactionLog.Status;
+import com.assignment.service_A.repository.CompensationOutboxRepository;
+import com.assignment.service_A.repository.TransactionLogRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
 public class AppConfig {
     @Bean
-    public TaskExecutor taskExecutor() {
+    public AsyncTaskExecutor taskExecutor(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // spring.threads.virtual.enabled: one virtual thread per task, Service B calls only park while waiting
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ServiceB-Async-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(10); // Adjust based on needs
         executor.setMaxPoolSize(50);
@@ -22,4 +50,162 @@ public class AppConfig {
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+
+    /**
+     * Runs async-mode Service B calls. Unlike the taskExecutor it rejects work once its threads and queue are
+     * full, so a saturated pool fails the request fast instead of running the blocking call on the Tomcat thread,
+     * where the timeout could never fire.
+     */
+    @Bean
+    public AsyncTaskExecutor serviceBCallExecutor(Environment environment,
+                                                  @Value("${service-b.async.max-threads:50}") int maxThreads,
+                                                  @Value("${service-b.async.queue-capacity:100}") int queueCapacity) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // A virtual thread per call never runs it on the caller; service-b.limiter bounds the calls instead
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ServiceB-Call-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.min(10, maxThreads));
+        executor.setMaxPoolSize(maxThreads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("ServiceB-Call-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean
+    public LiveTrafficMonitor liveTrafficMonitor(MeterRegistry meterRegistry,
+                                                 @Value("${lanes.yield-latency-ms:500}") long yieldLatencyMs,
+                                                 @Value("${lanes.max-yield-ms:30000}") long maxYieldMs,
+                                                 @Value("${lanes.poll-ms:100}") long pollMs) {
+        return new LiveTrafficMonitor(meterRegistry, yieldLatencyMs, maxYieldMs, pollMs);
+    }
+
+    @Bean
+    public RecoveryProgress recoveryProgress() {
+        return new RecoveryProgress();
+    }
+
+    @Bean
+    public RecoveryReadinessHealthIndicator recoveryReadinessHealthIndicator(
+            RecoveryProgress recoveryProgress,
+            @Value("${recovery.startup.readiness-gate:false}") boolean enabled,
+            @Value("${recovery.startup.readiness-threshold:1000}") long threshold) {
+        return new RecoveryReadinessHealthIndicator(recoveryProgress, enabled, threshold);
+    }
+
+    /**
+     * Single thread for the startup recovery scan, which runs once the application is ready so it never holds up
+     * startup, and outside the taskExecutor so a large backlog does not take its threads.
+     */
+    @Bean
+    public AsyncTaskExecutor startupRecoveryExecutor(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Startup-Recovery-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(1);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("Startup-Recovery-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Bounded pool that recovery scans fan each chunk out to, so a large backlog is worked through
+     * {@code recovery.parallelism} rows at a time.
+     */
+    @Bean
+    public AsyncTaskExecutor recoveryExecutor(Environment environment,
+                                              @Value("${recovery.parallelism:4}") int parallelism) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Recovery-Worker-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(parallelism);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setThreadNamePrefix("Recovery-Worker-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs outbox compensations, {@code compensation.outbox.parallelism} at a time, apart from recovery so neither
+     * background lane can take the other's threads.
+     */
+    @Bean
+    public AsyncTaskExecutor compensationExecutor(Environment environment,
+                                                  @Value("${compensation.outbox.parallelism:4}") int parallelism) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Compensation-Worker-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(parallelism);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setThreadNamePrefix("Compensation-Worker-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Publishes the state of Feign's pooled Apache HttpClient 5 connections to Service B (leased, pending and
+     * available) as {@code httpcomponents.httpclient.pool.*} metrics tagged {@code httpclient=serviceB}.
+     * Nothing is bound when Feign runs on the JDK HTTP/2 client instead.
+     */
+    @Bean
+    public MeterBinder serviceBConnectionPoolMetrics(ObjectProvider<HttpClientConnectionManager> connectionManager) {
+        return registry -> connectionManager.ifAvailable(manager -> {
+            if (manager instanceof PoolingHttpClientConnectionManager pool) {
+                new PoolingHttpClientConnectionManagerMetricsBinder(pool, "serviceB").bindTo(registry);
+            }
+        });
+    }
+
+    /**
+     * Saga statistics over this service's transaction logs, seeded from one {@code GROUP BY} on status.
+     */
+    @Bean
+    public SagaStatistics<TransactionLog, Status> sagaStatistics(TransactionLogRepository transactionLogRepository,
+                                                                 @Value("${saga.statistics.window-seconds:300}") int windowSeconds) {
+        return new SagaStatistics<>(Status.INITIATED, TransactionLog::getStatus, () -> {
+            Map<Status, Long> counts = new EnumMap<>(Status.class);
+            transactionLogRepository.countGroupByStatus().forEach(row -> counts.put(row.getStatus(), row.getCount()));
+            return counts;
+        }, windowSeconds);
+    }
+
+    /**
+     * Publishes the saga backlog: logs in INITIATED (in flight, or waiting for recovery) as {@code saga.backlog}
+     * and queued compensations as {@code compensation.outbox.depth}, both tagged by status. The backlog is read from
+     * {@link SagaStatistics}, so scrapes do not count rows.
+     */
+    @Bean
+    public MeterBinder sagaBacklogMetrics(SagaStatistics<TransactionLog, Status> sagaStatistics,
+                                          CompensationOutboxRepository compensationOutboxRepository) {
+        return registry -> {
+            Gauge.builder("saga.backlog", sagaStatistics, statistics -> statistics.count(Status.INITIATED))
+                    .tag("status", Status.INITIATED.name())
+                    .description("Transaction logs not yet completed")
+                    .register(registry);
+            for (String status : List.of("PENDING", "FAILED")) {
+                Gauge.builder("compensation.outbox.depth", compensationOutboxRepository,
+                                repository -> repository.countByStatus(status))
+                        .tag("status", status)
+                        .description("Compensations in the outbox")
+                        .register(registry);
+            }
+        };
+    }
+}
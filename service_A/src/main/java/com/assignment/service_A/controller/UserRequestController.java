@@ -2,8 +2,13 @@ package com.assignment.service_A.controller;
 
 import com.assignment.service_A.dto.RequestDTO;
 import com.assignment.service_A.dto.ResponseDTO;
+import com.assignment.service_A.dto.TransactionPageDTO;
+import com.assignment.service_A.entity.TransactionLog.Status;
+import com.assignment.service_A.exception.GlobalExceptionHandler;
+import com.assignment.service_A.service.TransactionQueryService;
 import com.assignment.service_A.service.UserRequestService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -12,10 +17,16 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/user-requests")
 @RequiredArgsConstructor
@@ -25,6 +36,10 @@ import org.springframework.web.bind.annotation.*;
 public class UserRequestController {
 
     private final UserRequestService userRequestService;
+    private final TransactionQueryService transactionQueryService;
+
+    @Value("${service-b.async.enabled:false}")
+    private boolean asyncEnabled;
 
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(
@@ -53,11 +68,48 @@ public class UserRequestController {
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = ResponseDTO.class))
             )
     })
-    public ResponseEntity<ResponseDTO> processRequest(@Valid @RequestBody RequestDTO requestDTO) {
+    public CompletableFuture<ResponseEntity<ResponseDTO>> processRequest(@Valid @RequestBody RequestDTO requestDTO) {
         log.info("Received user request with requestId: {}", requestDTO.getRequestId());
+        if (asyncEnabled) {
+            // The Tomcat thread is released here; the response is written when Service B answers or times out
+            return userRequestService.processRequestAsync(requestDTO).thenApply(response -> {
+                log.info("Processed requestId: {} with status: {}", requestDTO.getRequestId(), response.getStatus());
+                return ResponseEntity.ok(response);
+            });
+        }
         ResponseDTO response = userRequestService.processRequest(requestDTO);
         log.info("Processed requestId: {} with status: {}", requestDTO.getRequestId(), response.getStatus());
-        return ResponseEntity.ok(response);
+        return CompletableFuture.completedFuture(ResponseEntity.ok(response));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "List User Requests",
+            description = "Lists logged user requests, most recently updated first. Pass the returned nextCursor "
+                    + "as cursor to get the next page."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "One page of user requests",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = TransactionPageDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid filter, limit or cursor",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class))
+            )
+    })
+    public ResponseEntity<TransactionPageDTO> listRequests(
+            @RequestParam(required = false) Status status,
+            @RequestParam(required = false) String userId,
+            @Parameter(description = "Updated at or after (ISO date-time)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Updated before (ISO date-time)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(transactionQueryService.findTransactions(status, userId, from, to, cursor, limit));
     }
 
     @PostMapping("/notify-compensation")
@@ -65,4 +117,11 @@ public class UserRequestController {
         log.info("Received compensation notification: {}", compensation);
         return ResponseEntity.ok().build();
     }
+
+    @PostMapping("/notify-compensation/batch")
+    public ResponseEntity<Void> notifyCompensations(@RequestBody List<ResponseDTO> compensations) {
+        log.info("Received {} compensation notifications", compensations.size());
+        compensations.forEach(compensation -> log.info("Received compensation notification: {}", compensation));
+        return ResponseEntity.ok().build();
+    }
 }
\ No newline at end of file
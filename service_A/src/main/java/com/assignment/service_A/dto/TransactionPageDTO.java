@@ -0,0 +1,20 @@
+package com.assignment.service_A.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One page of the transaction listing, most recently updated first")
+public class TransactionPageDTO {
+    @Schema(description = "Transactions on this page")
+    private List<TransactionSummaryDTO> items;
+
+    @Schema(description = "Cursor for the next page, or null on the last page", example = "MjAyNi0xMC0xOFQwNTo1NzoxNy44MDU4NDQsNDI")
+    private String nextCursor;
+}
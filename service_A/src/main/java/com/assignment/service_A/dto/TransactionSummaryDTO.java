@@ -0,0 +1,40 @@
+package com.assignment.service_A.dto;
+
+import com.assignment.service_A.entity.TransactionLog.Status;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the transaction listing, selected column by column so listing never loads entities or their details.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Saga state of one user request")
+public class TransactionSummaryDTO {
+    @JsonIgnore
+    private Long id;
+
+    @Schema(description = "Unique identifier of the request", example = "req123")
+    private String requestId;
+
+    @Schema(description = "Identifier of the user who made the request", example = "user456")
+    private String userId;
+
+    @Schema(description = "Saga status of the request", example = "SUCCESS")
+    private Status status;
+
+    @Schema(description = "Recovery attempts that got a fallback from Service B", example = "0")
+    private int retryCount;
+
+    @Schema(description = "When the request was logged")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "When the status last changed")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,42 @@
+package com.assignment.service_A.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pending compensation for a failed request. Rows are written in the same transaction that marks the request
+ * FAILED and deleted once Service B has accepted the compensation.
+ */
+@Entity
+@Table(name = "compensation_outbox", indexes = {
+        @Index(name = "idx_compensation_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+public class CompensationOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "request_id", nullable = false, length = 50)
+    private String requestId;
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status; // "PENDING", or "FAILED" once max attempts are exhausted
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
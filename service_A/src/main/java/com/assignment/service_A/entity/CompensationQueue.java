@@ -1,17 +0,0 @@
-package com.assignment.service_A.entity;
-
-import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
-import jakarta.persistence.Id;
-import lombok.Data;
-
-@Entity
-@Data
-public class CompensationQueue {
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-    private String requestId;
-    public CompensationQueue(String requestId) { this.requestId = requestId; }
-}
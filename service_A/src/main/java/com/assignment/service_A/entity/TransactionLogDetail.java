@@ -0,0 +1,24 @@
+package com.assignment.service_A.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Free text of a {@link TransactionLog}, rarely read and kept out of its row so that status scans and updates
+ * touch narrow rows only. A log gets a detail row once there is something to store in it.
+ */
+@Entity
+@Table(name = "transaction_log_details")
+@Data
+public class TransactionLogDetail {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "details", columnDefinition = "TEXT")
+    private String details; // Optional: Additional context for the transaction
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;  // To store error details
+}
@@ -0,0 +1,11 @@
+package com.assignment.service_A.exception;
+
+/**
+ * The time budget for a Service B call ran out before it could be made.
+ */
+public class DeadlineExceededException extends ServiceAExceptions {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
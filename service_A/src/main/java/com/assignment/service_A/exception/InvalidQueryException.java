@@ -0,0 +1,11 @@
+package com.assignment.service_A.exception;
+
+/**
+ * A transaction query with an invalid filter, page size or cursor.
+ */
+public class InvalidQueryException extends RuntimeException {
+
+    public InvalidQueryException(String message) {
+        super(message);
+    }
+}
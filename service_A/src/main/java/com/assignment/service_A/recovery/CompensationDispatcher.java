@@ -0,0 +1,231 @@
+package com.assignment.service_A.recovery;
+
+import com.assignment.common.lanes.LiveTrafficMonitor;
+import com.assignment.common.saga.SagaStatistics;
+import com.assignment.service_A.client.ServiceBClient;
+import com.assignment.service_A.entity.CompensationOutbox;
+import com.assignment.service_A.entity.TransactionLog;
+import com.assignment.service_A.entity.TransactionLog.Status;
+import com.assignment.service_A.repository.CompensationOutboxRepository;
+import com.assignment.service_A.repository.TransactionLogRepository;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Delivers compensations to Service B through the {@code compensation_outbox} table. Failed requests are queued
+ * in the same transaction that marks them FAILED, and a dispatcher thread claims due rows in batches of
+ * {@code compensation.outbox.batch-size} and compensates them concurrently on the compensation executor, within
+ * the {@code serviceB-compensation} bulkhead and yielding to live traffic (see {@link LiveTrafficMonitor}). Failed
+ * dispatches are retried with exponential backoff until {@code max-attempts} is reached.
+ * <p>
+ * The dispatcher is woken as soon as a queuing transaction commits, polls again right away while full batches
+ * keep coming back, and otherwise backs off from {@code min-poll-ms} to {@code max-poll-ms}. Rows are claimed with
+ * {@code SKIP LOCKED}, so several Service A instances can drain the same outbox in parallel.
+ */
+@Service
+@Slf4j
+public class CompensationDispatcher {
+
+    private final CompensationOutboxRepository compensationOutboxRepository;
+    private final TransactionLogRepository transactionLogRepository;
+    private final ServiceBClient serviceBClient;
+    private final AsyncTaskExecutor compensationExecutor;
+    private final Bulkhead bulkhead;
+    private final LiveTrafficMonitor liveTrafficMonitor;
+    private final SagaStatistics<TransactionLog, Status> sagaStatistics;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final Duration lease;
+    private final long minPollMs;
+    private final long maxPollMs;
+
+    private final Object wakeUp = new Object();
+    private boolean wakeUpPending; // guarded by wakeUp
+    private volatile boolean running;
+    private Thread dispatcher;
+
+    public CompensationDispatcher(CompensationOutboxRepository compensationOutboxRepository,
+                                  TransactionLogRepository transactionLogRepository,
+                                  ServiceBClient serviceBClient,
+                                  @Qualifier("compensationExecutor") AsyncTaskExecutor compensationExecutor,
+                                  BulkheadRegistry bulkheadRegistry,
+                                  LiveTrafficMonitor liveTrafficMonitor,
+                                  SagaStatistics<TransactionLog, Status> sagaStatistics,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${compensation.outbox.batch-size:100}") int batchSize,
+                                  @Value("${compensation.outbox.max-attempts:10}") int maxAttempts,
+                                  @Value("${compensation.outbox.initial-backoff-ms:1000}") long initialBackoffMs,
+                                  @Value("${compensation.outbox.max-backoff-ms:300000}") long maxBackoffMs,
+                                  @Value("${compensation.outbox.lease-ms:120000}") long leaseMs,
+                                  @Value("${compensation.outbox.min-poll-ms:100}") long minPollMs,
+                                  @Value("${compensation.outbox.max-poll-ms:2000}") long maxPollMs) {
+        this.compensationOutboxRepository = compensationOutboxRepository;
+        this.transactionLogRepository = transactionLogRepository;
+        this.serviceBClient = serviceBClient;
+        this.compensationExecutor = compensationExecutor;
+        this.bulkhead = bulkheadRegistry.bulkhead("serviceB-compensation");
+        this.liveTrafficMonitor = liveTrafficMonitor;
+        this.sagaStatistics = sagaStatistics;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.lease = Duration.ofMillis(leaseMs);
+        this.minPollMs = minPollMs;
+        this.maxPollMs = maxPollMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "Compensation-Dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        dispatcher.interrupt();
+    }
+
+    /**
+     * Moves each log still in INITIATED to FAILED and queues its compensation in the same transaction, then
+     * wakes the dispatcher once that transaction commits. Logs that have already left INITIATED, or have not
+     * been inserted yet, are neither moved nor compensated.
+     */
+    @Transactional
+    public void failAndCompensate(List<TransactionLog> failedLogs) {
+        List<TransactionLog> moved = transactionLogRepository.completeAll(failedLogs);
+        sagaStatistics.transitioned(Status.INITIATED, moved);
+        if (moved.isEmpty()) {
+            return;
+        }
+        compensationOutboxRepository.enqueueAll(moved.stream().map(TransactionLog::getRequestId).toList());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wakeUp();
+            }
+        });
+    }
+
+    private void wakeUp() {
+        synchronized (wakeUp) {
+            wakeUpPending = true;
+            wakeUp.notify();
+        }
+    }
+
+    private void dispatchLoop() {
+        long pollMs = minPollMs;
+        while (running) {
+            int claimed;
+            try {
+                claimed = dispatchBatch();
+            } catch (Exception e) {
+                log.warn("Failed to dispatch queued compensations. Error: {}", e.getMessage());
+                claimed = 0;
+            }
+            if (claimed == batchSize) {
+                // A full batch means more rows are probably due
+                continue;
+            }
+            pollMs = claimed > 0 ? minPollMs : Math.min(pollMs * 2, maxPollMs);
+            try {
+                synchronized (wakeUp) {
+                    if (!wakeUpPending) {
+                        wakeUp.wait(pollMs);
+                    }
+                    wakeUpPending = false;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private int dispatchBatch() {
+        List<CompensationOutbox> claimed = compensationOutboxRepository.claimDue(batchSize, lease);
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<Exception>> outcomes = claimed.stream()
+                .map(entry -> CompletableFuture.supplyAsync(() -> compensate(entry), compensationExecutor))
+                .toList();
+        CompletableFuture.allOf(outcomes.toArray(CompletableFuture[]::new)).join();
+        List<Long> delivered = new ArrayList<>();
+        List<CompensationOutbox> failed = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < claimed.size(); i++) {
+            CompensationOutbox entry = claimed.get(i);
+            Exception error = outcomes.get(i).join();
+            if (error == null) {
+                delivered.add(entry.getId());
+            } else {
+                reschedule(entry, error, now);
+                failed.add(entry);
+            }
+        }
+        compensationOutboxRepository.deleteAllByIdInBatch(delivered);
+        compensationOutboxRepository.rescheduleAll(failed);
+        log.debug("Dispatched {} compensations, {} delivered, {} failed", claimed.size(), delivered.size(), failed.size());
+        return claimed.size();
+    }
+
+    private Exception compensate(CompensationOutbox entry) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Exception error = null;
+        try {
+            liveTrafficMonitor.awaitTurn("compensation");
+            bulkhead.executeRunnable(() -> serviceBClient.compensateTransaction(entry.getRequestId()));
+            log.info("Compensation successful for requestId: {}", entry.getRequestId());
+        } catch (Exception e) {
+            error = e;
+        }
+        sample.stop(Timer.builder("compensation.dispatch")
+                .description("Compensation calls to Service B made from the outbox")
+                .tag("outcome", error == null ? "success" : "failure")
+                .register(meterRegistry));
+        return error;
+    }
+
+    private void reschedule(CompensationOutbox entry, Exception error, LocalDateTime now) {
+        entry.setLastError(error.getMessage());
+        if (entry.getAttempts() >= maxAttempts) {
+            log.error("Giving up compensation for requestId: {} after {} attempts. Error: {}",
+                    entry.getRequestId(), entry.getAttempts(), error.getMessage());
+            entry.setStatus("FAILED");
+            entry.setNextAttemptAt(now);
+            return;
+        }
+        long backoffMs = Math.min(initialBackoffMs << Math.min(entry.getAttempts() - 1, 30), maxBackoffMs);
+        log.warn("Compensation failed for requestId: {} (attempt {}), retrying in {} ms. Error: {}",
+                entry.getRequestId(), entry.getAttempts(), backoffMs, error.getMessage());
+        entry.setNextAttemptAt(now.plus(Duration.ofMillis(backoffMs)));
+    }
+}
@@ -1,8 +1,10 @@
 package com.assignment.service_A.recovery;
 
 import com.assignment.service_A.client.ServiceBClient;
+import com.assignment.service_A.client.ServiceBDeadline;
 import com.assignment.service_A.dto.RequestDTO;
 import com.assignment.service_A.dto.ResponseDTO;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import lombok.RequiredArgsConstructor;
@@ -18,22 +20,17 @@ public class ReconciliationService {
 
     @CircuitBreaker(name = "serviceB", fallbackMethod = "fallbackServiceB")
     @Retry(name = "serviceB")
+    @Bulkhead(name = "serviceB-recovery")
     public ResponseDTO processRequest(RequestDTO requestDTO) {
-        ResponseDTO response = serviceBClient.processTransaction(requestDTO);
+        // Recovery runs in its own lane, outside the live concurrency limit; a full bulkhead ends in the fallback.
+        // Every attempt only gets what is left of the caller's ServiceBDeadline, and once that is spent the
+        // DeadlineExceededException ends the retries.
+        ResponseDTO response = serviceBClient.processTransaction(requestDTO,
+                ServiceBDeadline.options(requestDTO.getRequestId()));
         log.debug("Service B response: {}", response);
         return response;
     }
 
-    @Retry(name = "serviceBCompensation", fallbackMethod = "fallbackCompensation")
-    public void compensateRequest(String requestId) {
-        serviceBClient.compensateTransaction(requestId);
-        log.info("Compensation successful for requestId: {}", requestId);
-    }
-
-    private void fallbackCompensation(String requestId, Throwable throwable) {
-        log.warn("Compensation fallback triggered for requestId: {}. Reason: {}", requestId, throwable.getMessage());
-    }
-
     private ResponseDTO fallbackServiceB(RequestDTO requestDTO, Throwable throwable) {
         log.warn("Fallback triggered for Service B call for requestId: {}. Reason: {}",
                 requestDTO.getRequestId(), throwable.getMessage());
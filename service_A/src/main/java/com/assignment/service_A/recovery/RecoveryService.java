@@ -1,92 +1,276 @@
 package com.assignment.service_A.recovery;
 
+import com.assignment.common.lanes.LiveTrafficMonitor;
+import com.assignment.common.recovery.RecoveryProgress;
+import com.assignment.common.saga.SagaStatistics;
 import com.assignment.service_A.client.ServiceBClient;
+import com.assignment.service_A.client.ServiceBDeadline;
 import com.assignment.service_A.dto.RequestDTO;
 import com.assignment.service_A.dto.ResponseDTO;
-import com.assignment.service_A.entity.CompensationQueue;
 import com.assignment.service_A.entity.TransactionLog;
-import com.assignment.service_A.repository.CompensationQueueRepository;
+import com.assignment.service_A.entity.TransactionLog.Status;
 import com.assignment.service_A.repository.TransactionLogRepository;
-import jakarta.annotation.PostConstruct;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class RecoveryService {
 
+    private static final LocalDateTime SCAN_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     private final TransactionLogRepository transactionLogRepository;
     private final ServiceBClient serviceBClient;
     private final ReconciliationService reconciliationService;
-    private final CompensationQueueRepository compensationQueueRepository;
+    private final CompensationDispatcher compensationDispatcher;
+    private final LiveTrafficMonitor liveTrafficMonitor;
+    private final AsyncTaskExecutor recoveryExecutor;
+    private final RecoveryProgress recoveryProgress;
+    private final SagaStatistics<TransactionLog, Status> sagaStatistics;
+    private final Timer scanTimer;
+    private final Timer chunkTimer;
+    private final int chunkSize;
+    private final int statusBatchSize;
+    private final long minAgeSeconds;
+    private final long callBudgetMs;
+    private final long startupRetryDelayMs;
+    private final AtomicBoolean recoveryRunning = new AtomicBoolean();
+
+    public RecoveryService(TransactionLogRepository transactionLogRepository,
+                           ServiceBClient serviceBClient,
+                           ReconciliationService reconciliationService,
+                           CompensationDispatcher compensationDispatcher,
+                           LiveTrafficMonitor liveTrafficMonitor,
+                           @Qualifier("recoveryExecutor") AsyncTaskExecutor recoveryExecutor,
+                           RecoveryProgress recoveryProgress,
+                           SagaStatistics<TransactionLog, Status> sagaStatistics,
+                           MeterRegistry meterRegistry,
+                           @Value("${recovery.chunk-size:500}") int chunkSize,
+                           @Value("${recovery.status-batch-size:500}") int statusBatchSize,
+                           @Value("${recovery.min-age-seconds:60}") long minAgeSeconds,
+                           @Value("${recovery.call-budget-ms:10000}") long callBudgetMs,
+                           @Value("${recovery.startup.retry-delay-ms:10000}") long startupRetryDelayMs) {
+        this.transactionLogRepository = transactionLogRepository;
+        this.serviceBClient = serviceBClient;
+        this.reconciliationService = reconciliationService;
+        this.compensationDispatcher = compensationDispatcher;
+        this.liveTrafficMonitor = liveTrafficMonitor;
+        this.recoveryExecutor = recoveryExecutor;
+        this.recoveryProgress = recoveryProgress;
+        this.sagaStatistics = sagaStatistics;
+        this.scanTimer = Timer.builder("recovery.scan")
+                .description("Recovery runs over the INITIATED backlog")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("recovery.chunk")
+                .description("Status lookup and recovery of one chunk of the INITIATED backlog")
+                .register(meterRegistry);
+        this.chunkSize = chunkSize;
+        this.statusBatchSize = statusBatchSize;
+        this.minAgeSeconds = minAgeSeconds;
+        this.callBudgetMs = callBudgetMs;
+        this.startupRetryDelayMs = startupRetryDelayMs;
+    }
 
-    @PostConstruct
+    /**
+     * Recovers the backlog left by the previous run once the application is up, off the startup path so the port
+     * opens straight away. Service B may not be up yet, so a scan that cannot reach it, or that fails outright, is
+     * retried every {@code recovery.startup.retry-delay-ms} until one gets through the backlog and the readiness
+     * gate opens.
+     */
+    @Async("startupRecoveryExecutor")
+    @EventListener(ApplicationReadyEvent.class)
     public void recoverOnStartup() {
         log.info("Recovering incomplete transactions on startup...");
-        List<TransactionLog> incompleteTransactions = transactionLogRepository.findByStatusIn(List.of("INITIATED"));
-        recoverTransactions(incompleteTransactions);
+        while (true) {
+            try {
+                if (recoverTransactions(RecoveryProgress.STARTUP)) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                log.error("Startup recovery failed, retrying in {} ms. Error: {}", startupRetryDelayMs, e.getMessage());
+            }
+            try {
+                Thread.sleep(startupRetryDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
     }
 
-    @Scheduled(fixedRate = 5 * 60 * 1000) // Every 5 minutes
+    @Scheduled(fixedRate = 5 * 60 * 1000, initialDelay = 5 * 60 * 1000) // Every 5 minutes, after startup recovery
     public void periodicRecovery() {
         log.info("Running periodic recovery...");
-        List<TransactionLog> incompleteTransactions = transactionLogRepository.findByStatusIn(List.of("INITIATED"));
-        recoverTransactions(incompleteTransactions);
-        List<CompensationQueue> queued = compensationQueueRepository.findAll();
-        for (CompensationQueue queue : queued) {
-            reconciliationService.compensateRequest(queue.getRequestId());
-            compensationQueueRepository.delete(queue);
-        }
+        recoverTransactions("periodic");
     }
 
-    private void recoverTransactions(List<TransactionLog> transactions) {
-        if (transactions.isEmpty()) {
-            log.info("No incomplete transactions found.");
-            return;
+    /**
+     * Pages through INITIATED rows older than {@code recovery.min-age-seconds} in chunks of
+     * {@code recovery.chunk-size}, keyset-ordered on (updated_at, id), and recovers each chunk on the
+     * recovery executor before loading the next. Only one scan runs at a time; overlapping triggers are skipped.
+     *
+     * @return whether the scan got through the whole backlog
+     */
+    private boolean recoverTransactions(String trigger) {
+        if (!recoveryRunning.compareAndSet(false, true)) {
+            log.info("Recovery already in progress, skipping this run.");
+            return false;
         }
-        for (TransactionLog transaction : transactions) {
-            try {
-                log.info("Recovering transaction: {}", transaction.getRequestId());
+        Timer.Sample scan = Timer.start();
+        RecoveryProgress.Run run = null;
+        boolean completed = false;
+        try {
+            // Rows touched after the cutoff, including the ones this scan updates, are left for the next run
+            LocalDateTime cutoff = LocalDateTime.now().minusSeconds(minAgeSeconds);
+            run = recoveryProgress.start(trigger,
+                    transactionLogRepository.countByStatusAndUpdatedAtBefore(Status.INITIATED, cutoff));
+            LocalDateTime afterUpdatedAt = SCAN_START;
+            long afterId = 0;
+            int scanned = 0;
+            List<TransactionLog> chunk;
+            do {
+                chunk = transactionLogRepository.findRecoveryChunk(
+                        Status.INITIATED, cutoff, afterUpdatedAt, afterId, Limit.of(chunkSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                TransactionLog last = chunk.get(chunk.size() - 1);
+                afterUpdatedAt = last.getUpdatedAt();
+                afterId = last.getId();
 
-                ResponseDTO status = serviceBClient.getTransactionStatus(transaction.getRequestId());
-                if ("SUCCESS".equals(status.getStatus())) {
-                    transaction.setStatus("SUCCESS");
-                    transactionLogRepository.save(transaction);
-                    continue;
+                Timer.Sample chunkSample = Timer.start();
+                Map<String, String> remoteStatuses;
+                try {
+                    remoteStatuses = fetchRemoteStatuses(chunk);
+                } catch (Exception e) {
+                    log.warn("Status lookup in Service B failed, stopping recovery until the next run. Error: {}", e.getMessage());
+                    return false;
                 }
+                recoverChunk(chunk, remoteStatuses, run);
+                chunkSample.stop(chunkTimer);
+                scanned += chunk.size();
+                run.scanned(chunk.size());
+            } while (chunk.size() == chunkSize);
 
-                RequestDTO requestDTO = new RequestDTO(transaction.getRequestId(), "", "");
+            if (scanned == 0) {
+                log.info("No incomplete transactions found.");
+            } else {
+                log.info("Recovery scanned {} incomplete transactions.", scanned);
+            }
+            completed = true;
+            return true;
+        } finally {
+            if (run != null) {
+                run.finish(completed);
+            }
+            scan.stop(scanTimer);
+            recoveryRunning.set(false);
+        }
+    }
 
-                ResponseDTO response = reconciliationService.processRequest(requestDTO);
+    /**
+     * Looks up the Service B status of every row in the chunk with one bulk call per
+     * {@code recovery.status-batch-size} IDs instead of one call per row.
+     */
+    private Map<String, String> fetchRemoteStatuses(List<TransactionLog> chunk) {
+        Map<String, String> statuses = new HashMap<>();
+        for (int from = 0; from < chunk.size(); from += statusBatchSize) {
+            List<String> requestIds = chunk.subList(from, Math.min(from + statusBatchSize, chunk.size())).stream()
+                    .map(TransactionLog::getRequestId)
+                    .toList();
+            liveTrafficMonitor.awaitTurn("recovery");
+            for (ResponseDTO status : serviceBClient.getTransactionStatuses(requestIds)) {
+                statuses.put(status.getRequestId(), status.getStatus());
+            }
+        }
+        return statuses;
+    }
 
-                if ("FALLBACK".equals(response.getStatus()) && transaction.getRetryCount() < 3) {
-                    transaction.setRetryCount(transaction.getRetryCount() + 1);
-                    transactionLogRepository.save(transaction);
-                    continue;
-                }
+    /**
+     * Marks rows Service B already completed as SUCCESS in one batched update and reconciles the rest
+     * on the recovery executor.
+     */
+    private void recoverChunk(List<TransactionLog> chunk, Map<String, String> remoteStatuses, RecoveryProgress.Run run) {
+        LocalDateTime now = LocalDateTime.now();
+        List<TransactionLog> completed = new ArrayList<>();
+        List<TransactionLog> pending = new ArrayList<>();
+        for (TransactionLog transaction : chunk) {
+            if ("SUCCESS".equals(remoteStatuses.get(transaction.getRequestId()))) {
+                transaction.setStatus(Status.SUCCESS);
+                transaction.setUpdatedAt(now);
+                completed.add(transaction);
+            } else {
+                pending.add(transaction);
+            }
+        }
+        sagaStatistics.transitioned(Status.INITIATED, transactionLogRepository.completeAll(completed));
+        run.recovered(completed.size());
+        if (!completed.isEmpty()) {
+            log.info("{} transactions already completed in Service B marked SUCCESS.", completed.size());
+        }
 
-                if ("SUCCESS".equals(response.getStatus())) {
-                    transaction.setStatus("SUCCESS");
-                } else {
-                    transaction.setStatus("FAILED");
-                    transaction.setErrorMessage(response.getMessage());
-                    reconciliationService.compensateRequest(transaction.getRequestId());
-                }
-                transaction.setUpdatedAt(LocalDateTime.now());
+        CompletableFuture.allOf(pending.stream()
+                .map(transaction -> CompletableFuture.runAsync(() -> recoverTransaction(transaction, run), recoveryExecutor))
+                .toArray(CompletableFuture[]::new)).join();
+    }
+
+    private void recoverTransaction(TransactionLog transaction, RecoveryProgress.Run run) {
+        try {
+            log.info("Recovering transaction: {}", transaction.getRequestId());
+
+            RequestDTO requestDTO = new RequestDTO(transaction.getRequestId(), "", "");
+
+            // The budget covers every retry of the call, but not the time spent yielding to live traffic
+            liveTrafficMonitor.awaitTurn("recovery");
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(callBudgetMs);
+            ResponseDTO response = ServiceBDeadline.call(deadline, () -> reconciliationService.processRequest(requestDTO));
+
+            if ("FALLBACK".equals(response.getStatus()) && transaction.getRetryCount() < 3) {
+                transaction.setRetryCount(transaction.getRetryCount() + 1);
                 transactionLogRepository.save(transaction);
-                log.info("Transaction {} recovered.", transaction.getRequestId());
-            } catch (Exception e) {
-                log.error("Failed to recover transaction {}. Error: {}", transaction.getRequestId(), e.getMessage());
-                transaction.setStatus("FAILED");
-                transaction.setErrorMessage(e.getMessage());
+                run.deferred();
+                return;
+            }
+
+            transaction.setUpdatedAt(LocalDateTime.now());
+            if ("SUCCESS".equals(response.getStatus())) {
+                transaction.setStatus(Status.SUCCESS);
                 transactionLogRepository.save(transaction);
+                sagaStatistics.transitioned(Status.INITIATED, Status.SUCCESS, 1);
+                run.recovered(1);
+            } else {
+                transaction.setStatus(Status.FAILED);
+                transaction.setErrorMessage(response.getMessage());
+                compensationDispatcher.failAndCompensate(List.of(transaction));
+                run.failed();
             }
+            log.info("Transaction {} recovered.", transaction.getRequestId());
+        } catch (Exception e) {
+            log.error("Failed to recover transaction {}. Error: {}", transaction.getRequestId(), e.getMessage());
+            transaction.setStatus(Status.FAILED);
+            transaction.setErrorMessage(e.getMessage());
+            transactionLogRepository.save(transaction);
+            sagaStatistics.transitioned(Status.INITIATED, Status.FAILED, 1);
+            run.failed();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,30 @@
+package com.assignment.service_A.repository;
+
+import com.assignment.service_A.entity.CompensationOutbox;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Queue operations on the compensation outbox that bypass the persistence context.
+ */
+public interface CompensationOutboxBatchRepository {
+
+    /**
+     * Queues one PENDING row per request ID, due immediately.
+     */
+    void enqueueAll(Collection<String> requestIds);
+
+    /**
+     * Claims up to {@code limit} due PENDING rows with {@code SELECT ... FOR UPDATE SKIP LOCKED}, so concurrent
+     * dispatchers never claim the same row, and leases them by counting the attempt and pushing
+     * {@code next_attempt_at} out by {@code lease}. A row whose dispatcher dies becomes due again when the lease ends.
+     */
+    List<CompensationOutbox> claimDue(int limit, Duration lease);
+
+    /**
+     * Writes back status, next attempt time and last error of rows whose dispatch failed.
+     */
+    void rescheduleAll(List<CompensationOutbox> entries);
+}
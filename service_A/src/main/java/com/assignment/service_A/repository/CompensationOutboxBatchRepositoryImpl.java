@@ -0,0 +1,94 @@
+package com.assignment.service_A.repository;
+
+import com.assignment.service_A.entity.CompensationOutbox;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link CompensationOutboxBatchRepository}.
+ */
+@RequiredArgsConstructor
+public class CompensationOutboxBatchRepositoryImpl implements CompensationOutboxBatchRepository {
+
+    private static final String ENQUEUE_SQL =
+            "INSERT INTO compensation_outbox (request_id, status, attempts, next_attempt_at, created_at) VALUES (?, 'PENDING', 0, ?, ?)";
+
+    private static final String CLAIM_SQL =
+            "SELECT id, request_id, status, attempts, next_attempt_at, last_error, created_at FROM compensation_outbox "
+                    + "WHERE status = 'PENDING' AND next_attempt_at <= ? ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String LEASE_SQL =
+            "UPDATE compensation_outbox SET attempts = ?, next_attempt_at = ? WHERE id = ?";
+
+    private static final String RESCHEDULE_SQL =
+            "UPDATE compensation_outbox SET status = ?, next_attempt_at = ?, last_error = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void enqueueAll(Collection<String> requestIds) {
+        if (requestIds.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(ENQUEUE_SQL, requestIds, requestIds.size(), (ps, requestId) -> {
+            ps.setString(1, requestId);
+            ps.setTimestamp(2, now);
+            ps.setTimestamp(3, now);
+        });
+    }
+
+    @Override
+    @Transactional
+    public List<CompensationOutbox> claimDue(int limit, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        List<CompensationOutbox> claimed = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> {
+            CompensationOutbox entry = new CompensationOutbox();
+            entry.setId(rs.getLong("id"));
+            entry.setRequestId(rs.getString("request_id"));
+            entry.setStatus(rs.getString("status"));
+            entry.setAttempts(rs.getInt("attempts"));
+            entry.setNextAttemptAt(rs.getTimestamp("next_attempt_at").toLocalDateTime());
+            entry.setLastError(rs.getString("last_error"));
+            entry.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+            return entry;
+        }, Timestamp.valueOf(now), limit);
+        if (claimed.isEmpty()) {
+            return claimed;
+        }
+
+        LocalDateTime leaseEnd = now.plus(lease);
+        for (CompensationOutbox entry : claimed) {
+            entry.setAttempts(entry.getAttempts() + 1);
+            entry.setNextAttemptAt(leaseEnd);
+        }
+        jdbcTemplate.batchUpdate(LEASE_SQL, claimed, claimed.size(), (ps, entry) -> {
+            ps.setInt(1, entry.getAttempts());
+            ps.setTimestamp(2, Timestamp.valueOf(entry.getNextAttemptAt()));
+            ps.setLong(3, entry.getId());
+        });
+        return claimed;
+    }
+
+    @Override
+    @Transactional
+    public void rescheduleAll(List<CompensationOutbox> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(RESCHEDULE_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setString(1, entry.getStatus());
+            ps.setTimestamp(2, Timestamp.valueOf(entry.getNextAttemptAt()));
+            ps.setString(3, entry.getLastError());
+            ps.setLong(4, entry.getId());
+        });
+    }
+}
@@ -0,0 +1,11 @@
+package com.assignment.service_A.repository;
+
+import com.assignment.service_A.entity.CompensationOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CompensationOutboxRepository extends JpaRepository<CompensationOutbox, Long>, CompensationOutboxBatchRepository {
+
+    long countByStatus(String status);
+}
@@ -0,0 +1,35 @@
+package com.assignment.service_A.repository;
+
+import com.assignment.service_A.entity.TransactionLog;
+
+import java.util.List;
+
+/**
+ * Bulk write operations for transaction logs that bypass the persistence context.
+ */
+public interface TransactionLogBatchRepository {
+
+    /**
+     * Inserts all given logs using batched JDBC statements. IDs are not populated on the entities.
+     */
+    void insertAll(List<TransactionLog> transactionLogs);
+
+    /**
+     * Inserts the logs whose request ID is not taken yet and returns them; the others are skipped. Must be called
+     * outside a transaction, as each row that collides falls back to a statement of its own.
+     */
+    List<TransactionLog> insertNew(List<TransactionLog> transactionLogs);
+
+    /**
+     * Moves each log still in INITIATED to its new status, error message and update time.
+     * Logs that already left INITIATED (e.g. failed by a timed-out caller) are left untouched; the others are
+     * returned.
+     */
+    List<TransactionLog> completeAll(List<TransactionLog> transactionLogs);
+
+    /**
+     * Deletes archived logs and their details, skipping any whose status changed since they were read, and
+     * returns the ones deleted.
+     */
+    List<TransactionLog> deleteArchived(List<TransactionLog> transactionLogs);
+}
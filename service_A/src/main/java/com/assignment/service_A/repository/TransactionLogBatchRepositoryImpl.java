@@ -0,0 +1,167 @@
+package com.assignment.service_A.repository;
+
+import com.assignment.service_A.entity.TransactionLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link TransactionLogBatchRepository}. IDENTITY ids prevent Hibernate from
+ * batching inserts, so rows are written with {@link JdbcTemplate#batchUpdate} instead.
+ */
+@RequiredArgsConstructor
+public class TransactionLogBatchRepositoryImpl implements TransactionLogBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO transaction_logs (request_id, user_id, status, retry_count, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String COMPLETE_SQL =
+            "UPDATE transaction_logs SET status = ?, updated_at = ? WHERE request_id = ? AND status = ?";
+
+    private static final String INSERT_DETAIL_SQL =
+            "INSERT INTO transaction_log_details (error_message) VALUES (?)";
+
+    private static final String DELETE_SQL =
+            "DELETE FROM transaction_logs WHERE id = ? AND status = ?";
+
+    private static final String DELETE_DETAIL_SQL =
+            "DELETE FROM transaction_log_details WHERE id = ?";
+
+    private static final String LINK_DETAIL_SQL =
+            "UPDATE transaction_logs SET detail_id = ? WHERE request_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${service-b.coalescing.jdbc-batch-size:100}")
+    private int jdbcBatchSize;
+
+    @Override
+    @Transactional
+    public void insertAll(List<TransactionLog> transactionLogs) {
+        if (transactionLogs.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, transactionLogs, jdbcBatchSize, TransactionLogBatchRepositoryImpl::bindInsert);
+    }
+
+    /**
+     * Tries the whole batch in one transaction first. If a concurrent request took one of the IDs, the batch is
+     * rolled back and the rows are inserted one at a time, so only the colliding ones are lost.
+     */
+    @Override
+    public List<TransactionLog> insertNew(List<TransactionLog> transactionLogs) {
+        if (transactionLogs.isEmpty()) {
+            return List.of();
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    INSERT_SQL, transactionLogs, jdbcBatchSize, TransactionLogBatchRepositoryImpl::bindInsert));
+            return transactionLogs;
+        } catch (DuplicateKeyException e) {
+            List<TransactionLog> inserted = new ArrayList<>(transactionLogs.size());
+            for (TransactionLog transactionLog : transactionLogs) {
+                try {
+                    jdbcTemplate.update(INSERT_SQL, ps -> bindInsert(ps, transactionLog));
+                    inserted.add(transactionLog);
+                } catch (DuplicateKeyException duplicate) {
+                    // Taken by another request since the caller checked it
+                }
+            }
+            return inserted;
+        }
+    }
+
+    private static void bindInsert(PreparedStatement ps, TransactionLog transactionLog) throws SQLException {
+        ps.setString(1, transactionLog.getRequestId());
+        ps.setString(2, transactionLog.getUserId());
+        ps.setByte(3, transactionLog.getStatus().code());
+        ps.setInt(4, transactionLog.getRetryCount());
+        ps.setTimestamp(5, Timestamp.valueOf(transactionLog.getCreatedAt()));
+        ps.setTimestamp(6, Timestamp.valueOf(transactionLog.getUpdatedAt()));
+    }
+
+    /**
+     * Error messages are written after the status batch, one row at a time, and only for logs the batch
+     * actually moved; they only come with failures, which are the exception.
+     */
+    @Override
+    @Transactional
+    public List<TransactionLog> completeAll(List<TransactionLog> transactionLogs) {
+        if (transactionLogs.isEmpty()) {
+            return List.of();
+        }
+        int[][] updated = jdbcTemplate.batchUpdate(COMPLETE_SQL, transactionLogs, jdbcBatchSize, (ps, transactionLog) -> {
+            ps.setByte(1, transactionLog.getStatus().code());
+            ps.setTimestamp(2, Timestamp.valueOf(transactionLog.getUpdatedAt()));
+            ps.setString(3, transactionLog.getRequestId());
+            ps.setByte(4, TransactionLog.Status.INITIATED.code());
+        });
+
+        List<TransactionLog> moved = new ArrayList<>();
+        for (int i = 0; i < transactionLogs.size(); i++) {
+            int count = updated[i / jdbcBatchSize][i % jdbcBatchSize];
+            // Drivers may report SUCCESS_NO_INFO for batched statements, in which case the row is assumed moved
+            if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                moved.add(transactionLogs.get(i));
+            }
+        }
+        for (TransactionLog transactionLog : moved) {
+            if (transactionLog.getErrorMessage() == null) {
+                continue;
+            }
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(INSERT_DETAIL_SQL, new String[]{"id"});
+                ps.setString(1, transactionLog.getErrorMessage());
+                return ps;
+            }, keyHolder);
+            long detailId = keyHolder.getKeyAs(Long.class);
+            transactionLog.getDetail().setId(detailId);
+            jdbcTemplate.update(LINK_DETAIL_SQL, detailId, transactionLog.getRequestId());
+        }
+        return moved;
+    }
+
+    /**
+     * Details are deleted after their logs, and only for logs the batch actually deleted.
+     */
+    @Override
+    @Transactional
+    public List<TransactionLog> deleteArchived(List<TransactionLog> transactionLogs) {
+        if (transactionLogs.isEmpty()) {
+            return List.of();
+        }
+        int[][] deleted = jdbcTemplate.batchUpdate(DELETE_SQL, transactionLogs, jdbcBatchSize, (ps, transactionLog) -> {
+            ps.setLong(1, transactionLog.getId());
+            ps.setByte(2, transactionLog.getStatus().code());
+        });
+
+        List<TransactionLog> removed = new ArrayList<>();
+        List<Long> detailIds = new ArrayList<>();
+        for (int i = 0; i < transactionLogs.size(); i++) {
+            TransactionLog transactionLog = transactionLogs.get(i);
+            int rows = deleted[i / jdbcBatchSize][i % jdbcBatchSize];
+            if (rows > 0 || rows == Statement.SUCCESS_NO_INFO) {
+                removed.add(transactionLog);
+                if (transactionLog.getDetail() != null) {
+                    detailIds.add(transactionLog.getDetail().getId());
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate(DELETE_DETAIL_SQL, detailIds, jdbcBatchSize, (ps, detailId) -> ps.setLong(1, detailId));
+        return removed;
+    }
+}
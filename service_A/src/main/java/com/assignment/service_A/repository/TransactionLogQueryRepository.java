@@ -0,0 +1,21 @@
+package com.assignment.service_A.repository;
+
+import com.assignment.service_A.dto.TransactionSummaryDTO;
+import com.assignment.service_A.entity.TransactionLog.Status;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Filtered listing of transaction logs for the query API.
+ */
+public interface TransactionLogQueryRepository {
+
+    /**
+     * Up to {@code limit} summaries, most recently updated first, strictly before the
+     * {@code (beforeUpdatedAt, beforeId)} cursor when one is given. Filters left {@code null} are not applied;
+     * {@code from} is inclusive and {@code to} exclusive, both on {@code updated_at}.
+     */
+    List<TransactionSummaryDTO> findSummaries(Status status, String userId, LocalDateTime from, LocalDateTime to,
+                                              LocalDateTime beforeUpdatedAt, Long beforeId, int limit);
+}
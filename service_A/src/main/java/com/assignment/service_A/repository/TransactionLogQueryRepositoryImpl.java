@@ -0,0 +1,58 @@
+package com.assignment.service_A.repository;
+
+import com.assignment.service_A.dto.TransactionSummaryDTO;
+import com.assignment.service_A.entity.TransactionLog.Status;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JPQL implementation of {@link TransactionLogQueryRepository}. The query only gets the predicates of the filters
+ * actually given, so the database can pick the matching {@code (..., updated_at, id)} index instead of planning
+ * around {@code :param IS NULL} branches, and it selects the summary columns straight into the DTO.
+ */
+@RequiredArgsConstructor
+public class TransactionLogQueryRepositoryImpl implements TransactionLogQueryRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<TransactionSummaryDTO> findSummaries(Status status, String userId, LocalDateTime from, LocalDateTime to,
+                                                     LocalDateTime beforeUpdatedAt, Long beforeId, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT new com.assignment.service_A.dto.TransactionSummaryDTO("
+                + "t.id, t.requestId, t.userId, t.status, t.retryCount, t.createdAt, t.updatedAt) "
+                + "FROM TransactionLog t WHERE 1 = 1");
+        Map<String, Object> parameters = new HashMap<>();
+        if (status != null) {
+            jpql.append(" AND t.status = :status");
+            parameters.put("status", status);
+        }
+        if (userId != null) {
+            jpql.append(" AND t.userId = :userId");
+            parameters.put("userId", userId);
+        }
+        if (from != null) {
+            jpql.append(" AND t.updatedAt >= :from");
+            parameters.put("from", from);
+        }
+        if (to != null) {
+            jpql.append(" AND t.updatedAt < :to");
+            parameters.put("to", to);
+        }
+        if (beforeUpdatedAt != null) {
+            jpql.append(" AND (t.updatedAt < :beforeUpdatedAt OR (t.updatedAt = :beforeUpdatedAt AND t.id < :beforeId))");
+            parameters.put("beforeUpdatedAt", beforeUpdatedAt);
+            parameters.put("beforeId", beforeId);
+        }
+        jpql.append(" ORDER BY t.updatedAt DESC, t.id DESC");
+
+        TypedQuery<TransactionSummaryDTO> query = entityManager.createQuery(jpql.toString(), TransactionSummaryDTO.class);
+        parameters.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
@@ -0,0 +1,245 @@
+package com.assignment.service_A.service;
+
+import com.assignment.common.archive.TransactionLogArchive;
+import com.assignment.common.saga.SagaStatistics;
+import com.assignment.service_A.archive.ArchivedTransactionLog;
+import com.assignment.service_A.client.ServiceBClient;
+import com.assignment.service_A.dto.RequestDTO;
+import com.assignment.service_A.dto.ResponseDTO;
+import com.assignment.service_A.entity.TransactionLog;
+import com.assignment.service_A.entity.TransactionLog.Status;
+import com.assignment.service_A.exception.ServiceAExceptions;
+import com.assignment.service_A.repository.TransactionLogRepository;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects concurrent user requests into micro-batches so that each batch costs one INITIATED insert batch,
+ * one call to Service B's batch endpoint and one status update batch, instead of one of each per request.
+ * A batch is flushed when it reaches {@code max-batch-size} items or {@code max-wait-ms} after its first item.
+ */
+@Component
+@ConditionalOnProperty(prefix = "service-b.coalescing", name = "enabled", havingValue = "true")
+@Slf4j
+public class RequestCoalescer {
+
+    private final TransactionLogRepository transactionLogRepository;
+    private final TransactionLogArchive<ArchivedTransactionLog> transactionLogArchive;
+    private final ServiceBClient serviceBClient;
+    private final TaskExecutor taskExecutor;
+    private final SagaMetrics sagaMetrics;
+    private final SagaStatistics<TransactionLog, Status> sagaStatistics;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<PendingRequest> pending;
+
+    private volatile boolean running;
+    private Thread dispatcher;
+
+    public RequestCoalescer(TransactionLogRepository transactionLogRepository,
+                            TransactionLogArchive<ArchivedTransactionLog> transactionLogArchive,
+                            ServiceBClient serviceBClient,
+                            @Qualifier("taskExecutor") TaskExecutor taskExecutor,
+                            SagaMetrics sagaMetrics,
+                            SagaStatistics<TransactionLog, Status> sagaStatistics,
+                            @Value("${service-b.coalescing.max-batch-size:100}") int maxBatchSize,
+                            @Value("${service-b.coalescing.max-wait-ms:5}") long maxWaitMs,
+                            @Value("${service-b.coalescing.queue-capacity:10000}") int queueCapacity) {
+        this.transactionLogRepository = transactionLogRepository;
+        this.transactionLogArchive = transactionLogArchive;
+        this.serviceBClient = serviceBClient;
+        this.taskExecutor = taskExecutor;
+        this.sagaMetrics = sagaMetrics;
+        this.sagaStatistics = sagaStatistics;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.pending = new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "ServiceB-Coalescer");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        log.info("Request coalescing enabled (maxBatchSize={}, maxWaitMs={})",
+                maxBatchSize, TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        dispatcher.interrupt();
+    }
+
+    /**
+     * Queues the request for the next batch. The returned future completes with Service B's response for
+     * this request, or exceptionally if the request is a duplicate or the batch call fails.
+     */
+    public CompletableFuture<ResponseDTO> submit(RequestDTO requestDTO) {
+        PendingRequest request = new PendingRequest(requestDTO, new CompletableFuture<>());
+        if (!pending.offer(request)) {
+            throw new ServiceAExceptions("Request queue is full, rejecting requestId: " + requestDTO.getRequestId());
+        }
+        return request.future();
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                List<PendingRequest> batch = new ArrayList<>(maxBatchSize);
+                batch.add(pending.take());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    PendingRequest next = pending.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                taskExecutor.execute(() -> processBatch(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        PendingRequest leftover;
+        while ((leftover = pending.poll()) != null) {
+            leftover.future().completeExceptionally(new ServiceAExceptions("Service A is shutting down"));
+        }
+    }
+
+    private void processBatch(List<PendingRequest> batch) {
+        log.debug("Flushing batch of {} requests to Service B", batch.size());
+        try {
+            List<PendingRequest> candidates = rejectDuplicates(batch);
+            if (candidates.isEmpty()) {
+                return;
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<TransactionLog> newLogs = new ArrayList<>(candidates.size());
+            for (PendingRequest request : candidates) {
+                TransactionLog transactionLog = new TransactionLog();
+                transactionLog.setRequestId(request.requestDTO().getRequestId());
+                transactionLog.setUserId(request.requestDTO().getUserId());
+                transactionLog.setStatus(Status.INITIATED);
+                transactionLog.setCreatedAt(now);
+                transactionLog.setUpdatedAt(now);
+                newLogs.add(transactionLog);
+            }
+            List<TransactionLog> logs = sagaMetrics.record(SagaMetrics.BATCH_PHASE, "log.insert",
+                    () -> transactionLogRepository.insertNew(newLogs));
+            sagaStatistics.created(Status.INITIATED, logs.size());
+            List<PendingRequest> accepted = rejectTaken(candidates, logs);
+            if (accepted.isEmpty()) {
+                return;
+            }
+
+            List<ResponseDTO> responses;
+            Timer.Sample serviceBCall = sagaMetrics.start();
+            try {
+                responses = serviceBClient.processTransactions(
+                        accepted.stream().map(PendingRequest::requestDTO).toList());
+                sagaMetrics.stop(serviceBCall, SagaMetrics.BATCH_PHASE, "serviceB.call", true);
+            } catch (Exception e) {
+                sagaMetrics.stop(serviceBCall, SagaMetrics.BATCH_PHASE, "serviceB.call", false);
+                log.error("Batch call to Service B failed for {} requests. Error: {}", accepted.size(), e.getMessage());
+                sagaMetrics.record(SagaMetrics.BATCH_PHASE, "log.update", () -> completeLogs(logs, Status.FAILED, e.getMessage()));
+                accepted.forEach(request -> request.future().completeExceptionally(e));
+                return;
+            }
+
+            if (responses.size() != accepted.size()) {
+                throw new ServiceAExceptions("Service B returned " + responses.size() + " results for "
+                        + accepted.size() + " requests");
+            }
+            sagaMetrics.record(SagaMetrics.BATCH_PHASE, "log.update", () -> completeLogs(logs, Status.SUCCESS, null));
+            for (int i = 0; i < accepted.size(); i++) {
+                accepted.get(i).future().complete(responses.get(i));
+            }
+        } catch (Exception e) {
+            log.error("Failed to process batch of {} requests. Error: {}", batch.size(), e.getMessage());
+            batch.forEach(request -> request.future().completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Fails requests whose ID is already logged, archived or repeated within the batch, mirroring the unique
+     * constraint violation the single-request path would hit, and returns the rest.
+     */
+    private List<PendingRequest> rejectDuplicates(List<PendingRequest> batch) {
+        List<String> requestIds = batch.stream().map(request -> request.requestDTO().getRequestId()).distinct().toList();
+        Set<String> seen = new HashSet<>(transactionLogRepository.findExistingRequestIds(requestIds));
+        // Only IDs missing from the table can be archived, and the archive's index answers for them in memory
+        requestIds.stream()
+                .filter(requestId -> !seen.contains(requestId) && transactionLogArchive.contains(requestId))
+                .toList()
+                .forEach(seen::add);
+        List<PendingRequest> accepted = new ArrayList<>(batch.size());
+        for (PendingRequest request : batch) {
+            String requestId = request.requestDTO().getRequestId();
+            if (seen.add(requestId)) {
+                accepted.add(request);
+            } else {
+                request.future().completeExceptionally(
+                        new DataIntegrityViolationException("Duplicate requestId: " + requestId));
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Fails the requests whose ID another request inserted after {@link #rejectDuplicates} checked it, and returns
+     * the ones whose log was inserted, so only those are sent to Service B.
+     */
+    private List<PendingRequest> rejectTaken(List<PendingRequest> candidates, List<TransactionLog> inserted) {
+        if (inserted.size() == candidates.size()) {
+            return candidates;
+        }
+        Set<String> insertedIds = new HashSet<>();
+        inserted.forEach(transactionLog -> insertedIds.add(transactionLog.getRequestId()));
+        List<PendingRequest> accepted = new ArrayList<>(inserted.size());
+        for (PendingRequest request : candidates) {
+            String requestId = request.requestDTO().getRequestId();
+            if (insertedIds.contains(requestId)) {
+                accepted.add(request);
+            } else {
+                request.future().completeExceptionally(
+                        new DataIntegrityViolationException("Duplicate requestId: " + requestId));
+            }
+        }
+        return accepted;
+    }
+
+    private void completeLogs(List<TransactionLog> logs, Status status, String errorMessage) {
+        LocalDateTime now = LocalDateTime.now();
+        for (TransactionLog transactionLog : logs) {
+            transactionLog.setStatus(status);
+            transactionLog.setErrorMessage(errorMessage);
+            transactionLog.setUpdatedAt(now);
+        }
+        sagaStatistics.transitioned(Status.INITIATED, transactionLogRepository.completeAll(logs));
+    }
+
+    private record PendingRequest(RequestDTO requestDTO, CompletableFuture<ResponseDTO> future) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.assignment.service_A.service;
+
+import com.assignment.common.lanes.LiveTrafficMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Times the phases of the saga: {@code log.insert}, {@code serviceB.call}, {@code log.update} and
+ * {@code compensation} (marking the log FAILED and queueing its compensation). Single requests are recorded as
+ * {@code saga.phase} and coalesced batches as {@code saga.batch.phase}, each tagged with the phase and its
+ * outcome; percentile histograms are switched on in {@code management.metrics.distribution}. Service B calls
+ * also feed the {@link LiveTrafficMonitor}.
+ */
+@Component
+@RequiredArgsConstructor
+public class SagaMetrics {
+
+    public static final String PHASE = "saga.phase";
+    public static final String BATCH_PHASE = "saga.batch.phase";
+
+    private final MeterRegistry meterRegistry;
+    private final LiveTrafficMonitor liveTrafficMonitor;
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void stop(Timer.Sample sample, String metric, String phase, boolean success) {
+        long nanos = sample.stop(Timer.builder(metric)
+                .description("Duration of one phase of a user request saga")
+                .tag("phase", phase)
+                .tag("outcome", success ? "success" : "failure")
+                .register(meterRegistry));
+        if ("serviceB.call".equals(phase)) {
+            liveTrafficMonitor.record(nanos);
+        }
+    }
+
+    /**
+     * Runs the step and records it as failed if it throws.
+     */
+    public <T> T record(String metric, String phase, Supplier<T> step) {
+        Timer.Sample sample = start();
+        boolean success = false;
+        try {
+            T result = step.get();
+            success = true;
+            return result;
+        } finally {
+            stop(sample, metric, phase, success);
+        }
+    }
+
+    public void record(String metric, String phase, Runnable step) {
+        record(metric, phase, () -> {
+            step.run();
+            return null;
+        });
+    }
+}
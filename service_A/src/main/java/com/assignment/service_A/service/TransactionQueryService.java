@@ -0,0 +1,83 @@
+package com.assignment.service_A.service;
+
+import com.assignment.service_A.dto.TransactionPageDTO;
+import com.assignment.service_A.dto.TransactionSummaryDTO;
+import com.assignment.service_A.entity.TransactionLog.Status;
+import com.assignment.service_A.exception.InvalidQueryException;
+import com.assignment.service_A.repository.TransactionLogRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Transaction listing, most recently updated first, with keyset pagination on {@code (updated_at, id)}. The
+ * cursor is the position of the last row of the previous page, so every page costs the same however deep it
+ * is. A row updated while a client pages through moves to the front instead of shifting later pages.
+ */
+@Service
+public class TransactionQueryService {
+
+    private final TransactionLogRepository transactionLogRepository;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public TransactionQueryService(TransactionLogRepository transactionLogRepository,
+                                   @Value("${transactions.query.default-page-size:50}") int defaultPageSize,
+                                   @Value("${transactions.query.max-page-size:500}") int maxPageSize) {
+        this.transactionLogRepository = transactionLogRepository;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @Transactional(readOnly = true)
+    public TransactionPageDTO findTransactions(Status status, String userId, LocalDateTime from, LocalDateTime to,
+                                               String cursor, Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : limit;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new InvalidQueryException("limit must be between 1 and " + maxPageSize);
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new InvalidQueryException("from must be before to");
+        }
+        Position before = cursor == null ? null : Position.decode(cursor);
+
+        // One row past the page tells whether there is a next one
+        List<TransactionSummaryDTO> rows = transactionLogRepository.findSummaries(status, userId, from, to,
+                before == null ? null : before.updatedAt(), before == null ? null : before.id(), pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new TransactionPageDTO(rows, null);
+        }
+        List<TransactionSummaryDTO> page = List.copyOf(rows.subList(0, pageSize));
+        TransactionSummaryDTO last = page.get(pageSize - 1);
+        return new TransactionPageDTO(page, new Position(last.getUpdatedAt(), last.getId()).encode());
+    }
+
+    /**
+     * Keyset position of a row, sent to clients as an opaque URL-safe cursor.
+     */
+    private record Position(LocalDateTime updatedAt, long id) {
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((updatedAt + "," + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Position decode(String cursor) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(",");
+                if (parts.length != 2) {
+                    throw new InvalidQueryException("Invalid cursor: " + cursor);
+                }
+                return new Position(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new InvalidQueryException("Invalid cursor: " + cursor);
+            }
+        }
+    }
+}
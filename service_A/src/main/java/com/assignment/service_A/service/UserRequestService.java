@@ -3,9 +3,16 @@ package com.assignment.service_A.service;
 import com.assignment.service_A.dto.RequestDTO;
 import com.assignment.service_A.dto.ResponseDTO;
 
+import java.util.concurrent.CompletableFuture;
 
 public interface UserRequestService {
 
     ResponseDTO processRequest(RequestDTO requestDTO);
 
+    /**
+     * Runs the saga without blocking the calling thread: the Service B call runs on the task executor and is
+     * cancelled when the timeout expires.
+     */
+    CompletableFuture<ResponseDTO> processRequestAsync(RequestDTO requestDTO);
+
 }
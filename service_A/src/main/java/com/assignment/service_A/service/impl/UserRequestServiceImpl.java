@@ -1,24 +1,41 @@
 package com.assignment.service_A.service.impl;
 
 
+import com.assignment.common.archive.TransactionLogArchive;
+import com.assignment.common.saga.SagaStatistics;
+import com.assignment.service_A.archive.ArchivedTransactionLog;
 import com.assignment.service_A.client.ServiceBClient;
+import com.assignment.service_A.client.ServiceBConcurrencyLimiter;
+import com.assignment.service_A.client.ServiceBDeadline;
 import com.assignment.service_A.dto.RequestDTO;
 import com.assignment.service_A.dto.ResponseDTO;
-import com.assignment.service_A.entity.CompensationQueue;
 import com.assignment.service_A.entity.TransactionLog;
-import com.assignment.service_A.recovery.ReconciliationService;
-import com.assignment.service_A.repository.CompensationQueueRepository;
+import com.assignment.service_A.entity.TransactionLog.Status;
+import com.assignment.service_A.recovery.CompensationDispatcher;
 import com.assignment.service_A.repository.TransactionLogRepository;
+import com.assignment.service_A.service.RequestCoalescer;
+import com.assignment.service_A.service.SagaMetrics;
 import com.assignment.service_A.service.UserRequestService;
+import io.micrometer.core.instrument.Timer;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 @RequiredArgsConstructor
@@ -26,67 +43,274 @@ import java.util.concurrent.TimeUnit;
 public class UserRequestServiceImpl implements UserRequestService {
 
     private final TransactionLogRepository transactionLogRepository;
-    private final ReconciliationService reconciliationService;
+    private final TransactionLogArchive<ArchivedTransactionLog> transactionLogArchive;
     private final ServiceBClient serviceBClient;
-    private final CompensationQueueRepository compensationQueueRepository;
+    private final CompensationDispatcher compensationDispatcher;
+    private final ObjectProvider<RequestCoalescer> requestCoalescer;
+    private final AsyncTaskExecutor taskExecutor;
+    private final AsyncTaskExecutor serviceBCallExecutor;
+    private final SagaMetrics sagaMetrics;
+    private final SagaStatistics<TransactionLog, Status> sagaStatistics;
+    private final ServiceBConcurrencyLimiter serviceBLimiter;
+
+    @Value("${service-b.async.timeout-ms:10000}")
+    private long asyncTimeoutMs;
 
     @Override
     public ResponseDTO processRequest(RequestDTO requestDTO) {
+        // Over the Service B concurrency limit the request is shed before anything is written
+        ServiceBConcurrencyLimiter.Permit permit = serviceBLimiter.acquire(requestDTO.getRequestId());
+        RequestCoalescer coalescer = requestCoalescer.getIfAvailable();
+        if (coalescer != null) {
+            return processCoalesced(coalescer, requestDTO, permit);
+        }
+
         // Service A implements a choreography-based Saga, driving the process and triggering compensation if Service B fails.
-        TransactionLog transactionLog = createAndSaveInitialLog(requestDTO);
+        TransactionLog transactionLog = createInitialLog(requestDTO, permit);
 
+        Timer.Sample serviceBCall = sagaMetrics.start();
+        CompletableFuture<ResponseDTO> call;
         try {
-            CompletableFuture<ResponseDTO> futureResponse = callServiceBAsync(requestDTO);
-            ResponseDTO response = futureResponse.get(10, TimeUnit.SECONDS); // Timeout
-            updateLogSuccess(transactionLog, response);
+            call = callServiceBWithTimeout(requestDTO, permit);
+        } catch (TaskRejectedException e) {
+            permit.release();
+            return rejectSaturated(transactionLog, e);
+        }
+        ResponseDTO response;
+        try {
+            response = call.join();
+        } catch (Exception e) {
+            Throwable cause = unwrap(e);
+            sagaMetrics.stop(serviceBCall, SagaMetrics.PHASE, "serviceB.call", false);
+            log.error("Failed to process requestId: {}. Error: {}", requestDTO.getRequestId(), cause.getMessage());
+            sagaMetrics.record(SagaMetrics.PHASE, "compensation", () -> updateLogFailed(transactionLog, cause));
+            throw new RuntimeException("Service B is unavailable: " + cause.getMessage(), cause);
+        }
+        sagaMetrics.stop(serviceBCall, SagaMetrics.PHASE, "serviceB.call", true);
+        sagaMetrics.record(SagaMetrics.PHASE, "log.update", () -> updateLogSuccess(transactionLog, response));
+        response.setMessage("Successfully processed for requestId: " + requestDTO.getRequestId());
+        return response;
+    }
+
+    /**
+     * Same saga as {@link #processRequest} but the log writes and the Service B call are shared with
+     * other concurrent requests through the {@link RequestCoalescer}.
+     */
+    private ResponseDTO processCoalesced(RequestCoalescer coalescer, RequestDTO requestDTO,
+                                         ServiceBConcurrencyLimiter.Permit permit) {
+        CompletableFuture<ResponseDTO> futureResponse = submitCoalesced(coalescer, requestDTO, permit);
+        try {
+            ResponseDTO response = futureResponse.get(asyncTimeoutMs, TimeUnit.MILLISECONDS);
             response.setMessage("Successfully processed for requestId: " + requestDTO.getRequestId());
             return response;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DataIntegrityViolationException duplicate) {
+                throw duplicate;
+            }
+            throw failCoalesced(requestDTO, e.getCause());
         } catch (Exception e) {
-            log.error("Failed to process requestId: {}. Error: {}", requestDTO.getRequestId(), e.getMessage());
-            updateLogFailed(transactionLog, e);
-            triggerCompensation(requestDTO.getRequestId());
-            throw new RuntimeException("Service B is unavailable: " + e.getMessage(), e);
+            throw failCoalesced(requestDTO, e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<ResponseDTO> processRequestAsync(RequestDTO requestDTO) {
+        ServiceBConcurrencyLimiter.Permit permit = serviceBLimiter.acquire(requestDTO.getRequestId());
+        RequestCoalescer coalescer = requestCoalescer.getIfAvailable();
+        if (coalescer != null) {
+            return withTimeout(submitCoalesced(coalescer, requestDTO, permit), () -> { })
+                    .handleAsync((response, e) -> {
+                        if (e == null) {
+                            response.setMessage("Successfully processed for requestId: " + requestDTO.getRequestId());
+                            return response;
+                        }
+                        Throwable cause = unwrap(e);
+                        if (cause instanceof DataIntegrityViolationException duplicate) {
+                            throw duplicate;
+                        }
+                        throw failCoalesced(requestDTO, cause);
+                    }, taskExecutor);
+        }
+
+        TransactionLog transactionLog = createInitialLog(requestDTO, permit);
+        Timer.Sample serviceBCall = sagaMetrics.start();
+        CompletableFuture<ResponseDTO> call;
+        try {
+            call = callServiceBWithTimeout(requestDTO, permit);
+        } catch (TaskRejectedException e) {
+            permit.release();
+            return CompletableFuture.completedFuture(rejectSaturated(transactionLog, e));
+        }
+        return call
+                .handleAsync((response, e) -> {
+                    sagaMetrics.stop(serviceBCall, SagaMetrics.PHASE, "serviceB.call", e == null);
+                    if (e == null) {
+                        sagaMetrics.record(SagaMetrics.PHASE, "log.update", () -> updateLogSuccess(transactionLog, response));
+                        response.setMessage("Successfully processed for requestId: " + requestDTO.getRequestId());
+                        return response;
+                    }
+                    Throwable cause = unwrap(e);
+                    log.error("Failed to process requestId: {}. Error: {}", requestDTO.getRequestId(), cause.getMessage());
+                    sagaMetrics.record(SagaMetrics.PHASE, "compensation", () -> updateLogFailed(transactionLog, cause));
+                    throw new RuntimeException("Service B is unavailable: " + cause.getMessage(), cause);
+                }, taskExecutor);
+    }
+
+    /**
+     * Inserts the INITIATED log, giving the permit back if that fails (e.g. for a duplicate requestId).
+     * Archived IDs are no longer covered by the unique constraint, so they are rejected the same way up front.
+     */
+    private TransactionLog createInitialLog(RequestDTO requestDTO, ServiceBConcurrencyLimiter.Permit permit) {
+        try {
+            if (transactionLogArchive.contains(requestDTO.getRequestId())) {
+                throw new DataIntegrityViolationException("Duplicate requestId: " + requestDTO.getRequestId());
+            }
+            return sagaMetrics.record(SagaMetrics.PHASE, "log.insert", () -> createAndSaveInitialLog(requestDTO));
+        } catch (RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Queues the request with the coalescer. The permit is settled when its batch finishes, not when the caller
+     * stops waiting, so a timed-out request keeps its slot while its call to Service B is still running. The
+     * returned future is a dependent of the coalescer's, so failing it on timeout does not settle the permit.
+     */
+    private CompletableFuture<ResponseDTO> submitCoalesced(RequestCoalescer coalescer, RequestDTO requestDTO,
+                                                           ServiceBConcurrencyLimiter.Permit permit) {
+        CompletableFuture<ResponseDTO> future;
+        try {
+            future = coalescer.submit(requestDTO);
+        } catch (RuntimeException e) {
+            permit.release();
+            throw e;
         }
+        return future.whenComplete((response, e) -> {
+            Throwable cause = e == null ? null : unwrap(e);
+            if (cause == null) {
+                permit.onSuccess();
+            } else if (cause instanceof DataIntegrityViolationException) {
+                permit.release();
+            } else {
+                permit.onFailure(cause);
+            }
+        });
+    }
+
+    /**
+     * Calls Service B on the serviceBCallExecutor, throwing {@link TaskRejectedException} if its threads and
+     * queue are full. When the timeout expires the returned future fails with a
+     * {@link TimeoutException}; a call still queued is dropped and gives its permit back, while a call that already
+     * started is bounded by Feign timeouts set to the remaining budget, so the connection is dropped at the
+     * deadline as well, and Service B is told the same deadline. Such a call settles its permit only when it ends,
+     * so the limiter never admits more calls than are actually running.
+     */
+    private CompletableFuture<ResponseDTO> callServiceBWithTimeout(RequestDTO requestDTO,
+                                                                   ServiceBConcurrencyLimiter.Permit permit) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(asyncTimeoutMs);
+        CompletableFuture<ResponseDTO> result = new CompletableFuture<>();
+        AtomicBoolean started = new AtomicBoolean();
+        Future<?> call = serviceBCallExecutor.submit(() -> {
+            if (!started.compareAndSet(false, true)) {
+                return; // Timed out while queued
+            }
+            try {
+                result.complete(ServiceBDeadline.call(deadline, () -> serviceBClient.processTransaction(
+                        requestDTO, ServiceBDeadline.options(requestDTO.getRequestId()))));
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+            // A call that outlived the timeout counts as timed out, whatever it returned
+            if (result.isCompletedExceptionally()) {
+                permit.onFailure(result.exceptionNow());
+            } else {
+                permit.onSuccess();
+            }
+        });
+        return withTimeout(result, () -> {
+            if (started.compareAndSet(false, true)) {
+                call.cancel(false);
+                permit.onFailure(result.exceptionNow());
+            } else {
+                call.cancel(true);
+            }
+        });
+    }
+
+    /**
+     * Fails the future with a {@link TimeoutException} once the async timeout expires and runs
+     * {@code onTimeout} if that happened before it completed normally.
+     */
+    private CompletableFuture<ResponseDTO> withTimeout(CompletableFuture<ResponseDTO> future, Runnable onTimeout) {
+        CompletableFuture.delayedExecutor(asyncTimeoutMs, TimeUnit.MILLISECONDS).execute(() -> {
+            if (future.completeExceptionally(new TimeoutException(
+                    "Service B did not respond within " + asyncTimeoutMs + " ms"))) {
+                onTimeout.run();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Service B was never called, so the log is failed without queueing a compensation.
+     */
+    private ResponseDTO rejectSaturated(TransactionLog transactionLog, TaskRejectedException e) {
+        log.warn("Service B call pool is saturated, failing requestId: {}. Error: {}", transactionLog.getRequestId(), e.getMessage());
+        transactionLog.setStatus(Status.FAILED);
+        transactionLog.setErrorMessage("Service B call pool is saturated");
+        transactionLog.setUpdatedAt(LocalDateTime.now());
+        sagaMetrics.record(SagaMetrics.PHASE, "log.update", () -> sagaStatistics.transitioned(Status.INITIATED,
+                transactionLogRepository.completeAll(List.of(transactionLog))));
+        return new ResponseDTO("FALLBACK", transactionLog.getRequestId(),
+                "Service B call pool is saturated, request was not sent");
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
     }
 
-    @Async("taskExecutor")
-    private CompletableFuture<ResponseDTO> callServiceBAsync(RequestDTO requestDTO) {
-        ResponseDTO response = serviceBClient.processTransaction(requestDTO);
-        return CompletableFuture.completedFuture(response);
+    private RuntimeException failCoalesced(RequestDTO requestDTO, Throwable e) {
+        log.error("Failed to process requestId: {}. Error: {}", requestDTO.getRequestId(), e.getMessage());
+        TransactionLog transactionLog = new TransactionLog();
+        transactionLog.setRequestId(requestDTO.getRequestId());
+        transactionLog.setStatus(Status.FAILED);
+        transactionLog.setErrorMessage(e.getMessage());
+        transactionLog.setUpdatedAt(LocalDateTime.now());
+        sagaMetrics.record(SagaMetrics.PHASE, "compensation",
+                () -> compensationDispatcher.failAndCompensate(List.of(transactionLog)));
+        return new RuntimeException("Service B is unavailable: " + e.getMessage(), e);
     }
 
     @Transactional
     private TransactionLog createAndSaveInitialLog(RequestDTO requestDTO) {
         TransactionLog transactionLog = new TransactionLog();
         transactionLog.setRequestId(requestDTO.getRequestId());
-        transactionLog.setStatus("INITIATED");
+        transactionLog.setUserId(requestDTO.getUserId());
+        transactionLog.setStatus(Status.INITIATED);
         transactionLog.setCreatedAt(LocalDateTime.now());
         transactionLog.setUpdatedAt(LocalDateTime.now());
-        return transactionLogRepository.save(transactionLog);
+        TransactionLog saved = transactionLogRepository.save(transactionLog);
+        sagaStatistics.created(Status.INITIATED, 1);
+        return saved;
     }
 
     @Transactional
     private void updateLogSuccess(TransactionLog transactionLog, ResponseDTO response) {
-        transactionLog.setStatus("SUCCESS");
+        transactionLog.setStatus(Status.SUCCESS);
         transactionLog.setUpdatedAt(LocalDateTime.now());
         transactionLogRepository.save(transactionLog);
+        sagaStatistics.transitioned(Status.INITIATED, Status.SUCCESS, 1);
     }
 
-    @Transactional
-    private void updateLogFailed(TransactionLog transactionLog, Exception e) {
-        transactionLog.setStatus("FAILED");
+    /**
+     * Marks the log FAILED and queues its compensation in one transaction; the {@link CompensationDispatcher}
+     * delivers it to Service B.
+     */
+    private void updateLogFailed(TransactionLog transactionLog, Throwable e) {
+        transactionLog.setStatus(Status.FAILED);
         transactionLog.setUpdatedAt(LocalDateTime.now());
         transactionLog.setErrorMessage(e.getMessage());
-        transactionLogRepository.save(transactionLog);
-    }
-
-    private void triggerCompensation(String requestId) {
-        try {
-            reconciliationService.compensateRequest(requestId);
-        } catch (Exception ex) {
-            CompensationQueue queueEntry = new CompensationQueue(requestId);
-            compensationQueueRepository.save(queueEntry);
-            log.error("Compensation failed for requestId: {}. Error: {}", requestId, ex.getMessage());
-        }
+        compensationDispatcher.failAndCompensate(List.of(transactionLog));
     }
 }
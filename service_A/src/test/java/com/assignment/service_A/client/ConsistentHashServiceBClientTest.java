@@ -0,0 +1,145 @@
+package com.assignment.service_A.client;
+
+import com.assignment.service_A.dto.RequestDTO;
+import com.assignment.service_A.dto.ResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ConsistentHashServiceBClientTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int laterPort = freePort();
+    private static final StubServiceB upFirst = new StubServiceB(0);
+    private static StubServiceB upLater;
+
+    @Autowired
+    private ServiceBClient serviceBClient;
+
+    @DynamicPropertySource
+    static void routing(DynamicPropertyRegistry registry) {
+        registry.add("service-b.routing.enabled", () -> true);
+        registry.add("service-b.routing.instances",
+                () -> "http://localhost:" + laterPort + ",http://localhost:" + upFirst.port());
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        upFirst.stop();
+        if (upLater != null) {
+            upLater.stop();
+        }
+    }
+
+    @Test
+    void findsSagasThatFailedOverOnceTheirOwnerIsBack() {
+        List<String> requestIds = IntStream.range(0, 20).mapToObj(i -> "failover-" + i).toList();
+        for (String requestId : requestIds) {
+            assertThat(serviceBClient.processTransaction(new RequestDTO(requestId, "payload", "user-1")).getStatus())
+                    .isEqualTo("SUCCESS");
+        }
+        assertThat(upFirst.processed).containsExactlyInAnyOrderElementsOf(requestIds);
+
+        upLater = new StubServiceB(laterPort);
+
+        assertThat(serviceBClient.getTransactionStatuses(requestIds)).extracting(ResponseDTO::getStatus)
+                .containsOnly("SUCCESS");
+        for (String requestId : requestIds) {
+            assertThat(serviceBClient.compensateTransaction(requestId).getStatus()).isEqualTo("COMPENSATED");
+        }
+        assertThat(upFirst.compensated).containsExactlyInAnyOrderElementsOf(requestIds);
+        // The IDs the instance started later owns were asked there first
+        assertThat(upLater.notFound).isNotEmpty();
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Service B instance with a store of its own: it processes everything sent to it and answers NOT_FOUND for
+     * the rest.
+     */
+    private static final class StubServiceB {
+        private final HttpServer server;
+        final Set<String> processed = ConcurrentHashMap.newKeySet();
+        final Set<String> compensated = ConcurrentHashMap.newKeySet();
+        final Set<String> notFound = ConcurrentHashMap.newKeySet();
+
+        StubServiceB(int port) {
+            try {
+                server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            server.createContext("/actuator/health/readiness", exchange -> respond(exchange, "{\"status\":\"UP\"}"));
+            server.createContext("/api/serviceB/process", exchange -> {
+                RequestDTO request = objectMapper.readValue(exchange.getRequestBody(), RequestDTO.class);
+                processed.add(request.getRequestId());
+                respond(exchange, new ResponseDTO("SUCCESS", request.getRequestId(), "Processed"));
+            });
+            server.createContext("/api/serviceB/status/batch", exchange -> {
+                String[] requestIds = objectMapper.readValue(exchange.getRequestBody(), String[].class);
+                respond(exchange, Arrays.stream(requestIds).map(this::status).toList());
+            });
+            server.createContext("/api/compensation/", exchange -> {
+                String requestId = exchange.getRequestURI().getPath().substring("/api/compensation/".length());
+                if (processed.contains(requestId)) {
+                    compensated.add(requestId);
+                    respond(exchange, new ResponseDTO("COMPENSATED", requestId, "Compensated"));
+                } else {
+                    respond(exchange, status(requestId));
+                }
+            });
+            server.start();
+        }
+
+        int port() {
+            return server.getAddress().getPort();
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+
+        private ResponseDTO status(String requestId) {
+            if (processed.contains(requestId)) {
+                return new ResponseDTO("SUCCESS", requestId, "Processed");
+            }
+            notFound.add(requestId);
+            return new ResponseDTO("NOT_FOUND", requestId, "Transaction not found");
+        }
+
+        private static void respond(HttpExchange exchange, Object body) throws IOException {
+            byte[] bytes = (body instanceof String text ? text : objectMapper.writeValueAsString(body))
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        }
+    }
+}
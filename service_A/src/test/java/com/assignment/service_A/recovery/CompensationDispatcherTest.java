@@ -0,0 +1,61 @@
+package com.assignment.service_A.recovery;
+
+import com.assignment.service_A.entity.CompensationOutbox;
+import com.assignment.service_A.entity.TransactionLog;
+import com.assignment.service_A.entity.TransactionLog.Status;
+import com.assignment.service_A.repository.CompensationOutboxRepository;
+import com.assignment.service_A.repository.TransactionLogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CompensationDispatcherTest {
+
+    @Autowired
+    private CompensationDispatcher compensationDispatcher;
+
+    @Autowired
+    private TransactionLogRepository transactionLogRepository;
+
+    @Autowired
+    private CompensationOutboxRepository compensationOutboxRepository;
+
+    @Test
+    void compensatesOnlyLogsStillInitiated() {
+        TransactionLog initiated = transactionLogRepository.save(newLog(Status.INITIATED));
+        TransactionLog succeeded = transactionLogRepository.save(newLog(Status.SUCCESS));
+
+        compensationDispatcher.failAndCompensate(List.of(failed(initiated), failed(succeeded)));
+
+        assertThat(transactionLogRepository.findById(initiated.getId())).get()
+                .extracting(TransactionLog::getStatus).isEqualTo(Status.FAILED);
+        assertThat(transactionLogRepository.findById(succeeded.getId())).get()
+                .extracting(TransactionLog::getStatus).isEqualTo(Status.SUCCESS);
+        assertThat(compensationOutboxRepository.findAll()).extracting(CompensationOutbox::getRequestId)
+                .contains(initiated.getRequestId())
+                .doesNotContain(succeeded.getRequestId());
+    }
+
+    private static TransactionLog newLog(Status status) {
+        TransactionLog transactionLog = new TransactionLog();
+        transactionLog.setRequestId(UUID.randomUUID().toString());
+        transactionLog.setUserId("user-1");
+        transactionLog.setStatus(status);
+        return transactionLog;
+    }
+
+    /** The log as a timed-out caller would hand it over, whatever its stored status. */
+    private static TransactionLog failed(TransactionLog stored) {
+        TransactionLog transactionLog = newLog(Status.FAILED);
+        transactionLog.setRequestId(stored.getRequestId());
+        transactionLog.setUpdatedAt(LocalDateTime.now());
+        return transactionLog;
+    }
+}
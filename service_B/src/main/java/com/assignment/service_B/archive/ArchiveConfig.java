@@ -0,0 +1,38 @@
+package com.assignment.service_B.archive;
+
+import com.assignment.common.archive.ArchivalService;
+import com.assignment.common.archive.TransactionLogArchive;
+import com.assignment.service_B.entity.TransactionLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The archive is always open, so duplicate checks and lookups see partitions written while archival was enabled;
+ * the archival job only runs with {@code archive.enabled}.
+ */
+@Configuration
+public class ArchiveConfig {
+
+    @Bean
+    public TransactionLogArchive<ArchivedTransactionLog> transactionLogArchive(ObjectMapper objectMapper,
+                                                                               @Value("${archive.directory:./archive}") String directory) {
+        return new TransactionLogArchive<>(objectMapper, ArchivedTransactionLog.class, directory);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "archive.enabled", havingValue = "true")
+    public ArchivalService<TransactionLog, ArchivedTransactionLog> archivalService(
+            TransactionLogArchiveStore transactionLogArchiveStore,
+            TransactionLogArchive<ArchivedTransactionLog> transactionLogArchive,
+            MeterRegistry meterRegistry,
+            @Value("${archive.retention-days:7}") int retentionDays,
+            @Value("${archive.batch-size:1000}") int batchSize,
+            @Value("${archive.partition-retention-days:365}") int partitionRetentionDays) {
+        return new ArchivalService<>(transactionLogArchiveStore, transactionLogArchive, meterRegistry,
+                retentionDays, batchSize, partitionRetentionDays);
+    }
+}
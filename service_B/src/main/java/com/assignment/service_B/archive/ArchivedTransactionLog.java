@@ -0,0 +1,19 @@
+package com.assignment.service_B.archive;
+
+import com.assignment.common.archive.ArchiveEntry;
+import com.assignment.service_B.entity.TransactionLog;
+import com.assignment.service_B.entity.TransactionLog.Status;
+
+import java.time.LocalDateTime;
+
+/**
+ * One archived row, written as a line of NDJSON.
+ */
+public record ArchivedTransactionLog(String requestId, Status status, LocalDateTime createdAt, LocalDateTime updatedAt,
+                                     String errorMessage) implements ArchiveEntry {
+
+    public static ArchivedTransactionLog of(TransactionLog transactionLog) {
+        return new ArchivedTransactionLog(transactionLog.getRequestId(), transactionLog.getStatus(),
+                transactionLog.getCreatedAt(), transactionLog.getUpdatedAt(), transactionLog.getErrorMessage());
+    }
+}
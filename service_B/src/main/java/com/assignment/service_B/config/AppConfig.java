@@ -1,19 +1,54 @@
 package com.assignment.service_B.config;
 
-
+import com.assignment.common.lanes.LiveTrafficMonitor;
+import com.assignment.common.recovery.RecoveryProgress;
+import com.assignment.common.recovery.RecoveryReadinessHealthIndicator;
+import com.assignment.common.saga.SagaStatistics;
+import com.assignment.service_B.entity.TransactionLog;
+import com.assignment.service_B.entity.TransactionLog.Status;
+import com.assignment.service_B.repository.TransactionLogRepository;
+import com.assignment.service_B.service.CompensationNotifier;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
 @Configuration
 @EnableAsync
 public class AppConfig {
 
     @Bean
-    public TaskExecutor taskExecutor() {
+    public TaskExecutor taskExecutor(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Recovery-Async-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5);
         executor.setMaxPoolSize(20);
@@ -24,7 +59,171 @@ public class AppConfig {
     }
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public LiveTrafficMonitor liveTrafficMonitor(MeterRegistry meterRegistry,
+                                                 @Value("${lanes.yield-latency-ms:500}") long yieldLatencyMs,
+                                                 @Value("${lanes.max-yield-ms:30000}") long maxYieldMs,
+                                                 @Value("${lanes.poll-ms:100}") long pollMs) {
+        return new LiveTrafficMonitor(meterRegistry, yieldLatencyMs, maxYieldMs, pollMs);
+    }
+
+    @Bean
+    public RecoveryProgress recoveryProgress() {
+        return new RecoveryProgress();
+    }
+
+    @Bean
+    public RecoveryReadinessHealthIndicator recoveryReadinessHealthIndicator(
+            RecoveryProgress recoveryProgress,
+            @Value("${recovery.startup.readiness-gate:false}") boolean enabled,
+            @Value("${recovery.startup.readiness-threshold:1000}") long threshold) {
+        return new RecoveryReadinessHealthIndicator(recoveryProgress, enabled, threshold);
+    }
+
+    /**
+     * Single thread for the startup recovery scan, which runs once the application is ready so it never holds up
+     * startup, and outside the taskExecutor so a large backlog does not take its threads.
+     */
+    @Bean
+    public AsyncTaskExecutor startupRecoveryExecutor(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Startup-Recovery-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(1);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("Startup-Recovery-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Bounded pool that recovery scans fan each chunk out to, so a large backlog is worked through
+     * {@code recovery.parallelism} rows at a time.
+     */
+    @Bean
+    public AsyncTaskExecutor recoveryExecutor(Environment environment,
+                                              @Value("${recovery.parallelism:4}") int parallelism) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Recovery-Worker-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(parallelism);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setThreadNamePrefix("Recovery-Worker-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs gRPC calls and the requests of each {@code ProcessStream}, on virtual threads when they are enabled
+     * and otherwise on {@code grpc.server.threads} platform threads.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "grpc.server", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public AsyncTaskExecutor grpcExecutor(Environment environment,
+                                          @Value("${grpc.server.threads:32}") int threads) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("gRPC-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("gRPC-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Keep-alive connection pool for calls to Service A, capped at {@code service-a.http.max-connections}
+     * in total and {@code max-connections-per-route} per host.
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager serviceAConnectionManager(
+            @Value("${service-a.http.max-connections:50}") int maxConnections,
+            @Value("${service-a.http.max-connections-per-route:20}") int maxConnectionsPerRoute,
+            @Value("${service-a.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${service-a.http.read-timeout-ms:5000}") long readTimeoutMs,
+            @Value("${service-a.http.time-to-live-seconds:900}") long timeToLiveSeconds) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setTimeToLive(TimeValue.ofSeconds(timeToLiveSeconds))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Publishes leased, pending and available connections of the Service A pool as
+     * {@code httpcomponents.httpclient.pool.*} metrics tagged {@code httpclient=serviceA}.
+     */
+    @Bean
+    public MeterBinder serviceAConnectionPoolMetrics(PoolingHttpClientConnectionManager serviceAConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(serviceAConnectionManager, "serviceA");
+    }
+
+    /**
+     * Saga statistics over this service's transaction logs, seeded from one {@code GROUP BY} on status.
+     */
+    @Bean
+    public SagaStatistics<TransactionLog, Status> sagaStatistics(TransactionLogRepository transactionLogRepository,
+                                                                 @Value("${saga.statistics.window-seconds:300}") int windowSeconds) {
+        return new SagaStatistics<>(Status.INITIATED, TransactionLog::getStatus, () -> {
+            Map<Status, Long> counts = new EnumMap<>(Status.class);
+            transactionLogRepository.countGroupByStatus().forEach(row -> counts.put(row.getStatus(), row.getCount()));
+            return counts;
+        }, windowSeconds);
+    }
+
+    /**
+     * Publishes logs still in INITIATED as {@code saga.backlog}, read from {@link SagaStatistics}, and compensation
+     * notifications waiting for Service A as {@code compensation.notification.queue}.
+     */
+    @Bean
+    public MeterBinder sagaBacklogMetrics(SagaStatistics<TransactionLog, Status> sagaStatistics,
+                                          CompensationNotifier compensationNotifier) {
+        return registry -> {
+            Gauge.builder("saga.backlog", sagaStatistics, statistics -> statistics.count(Status.INITIATED))
+                    .tag("status", Status.INITIATED.name())
+                    .description("Transaction logs not yet completed")
+                    .register(registry);
+            Gauge.builder("compensation.notification.queue", compensationNotifier, CompensationNotifier::pendingCount)
+                    .description("Compensation notifications waiting to be sent to Service A")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * RestTemplate on the pooled Apache HttpClient 5, or on the JDK client negotiating HTTP/2 when
+     * {@code service-a.http.http2} is set.
+     */
+    @Bean
+    public RestTemplate restTemplate(PoolingHttpClientConnectionManager serviceAConnectionManager,
+                                     @Value("${service-a.http.http2:false}") boolean http2,
+                                     @Value("${service-a.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+                                     @Value("${service-a.http.read-timeout-ms:5000}") long readTimeoutMs,
+                                     @Value("${service-a.http.idle-timeout-seconds:60}") long idleTimeoutSeconds) {
+        if (http2) {
+            JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                    .build());
+            requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+            return new RestTemplate(requestFactory);
+        }
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(HttpClients.custom()
+                .setConnectionManager(serviceAConnectionManager)
+                .evictIdleConnections(TimeValue.ofSeconds(idleTimeoutSeconds))
+                .build()));
     }
-}
\ No newline at end of file
+}
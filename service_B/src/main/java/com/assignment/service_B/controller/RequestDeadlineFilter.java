@@ -0,0 +1,71 @@
+package com.assignment.service_B.controller;
+
+import com.assignment.service_B.dto.ErrorResponse;
+import com.assignment.service_B.service.RequestDeadline;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Reads the {@value RequestDeadline#HEADER} header into the {@link RequestDeadline} for the rest of the request.
+ * A request that arrives with no time left is answered with 504 straight away, before it reaches a controller.
+ */
+@Component
+@Slf4j
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    private final ObjectMapper objectMapper;
+    private final Counter expiredOnArrival;
+
+    public RequestDeadlineFilter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.expiredOnArrival = Counter.builder("deadline.expired")
+                .description("Requests dropped because Service A had stopped waiting for them")
+                .tag("stage", "arrival")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(RequestDeadline.HEADER);
+        if (header == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long timeoutMs;
+        try {
+            timeoutMs = Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed {} header: {}", RequestDeadline.HEADER, header);
+            chain.doFilter(request, response);
+            return;
+        }
+        if (timeoutMs <= 0) {
+            expiredOnArrival.increment();
+            log.warn("Rejecting {} {}: caller's deadline has already passed", request.getMethod(), request.getRequestURI());
+            response.setStatus(HttpStatus.GATEWAY_TIMEOUT.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), new ErrorResponse("DEADLINE_EXCEEDED",
+                    "Deadline passed before the request was processed", System.currentTimeMillis()));
+            return;
+        }
+        RequestDeadline.set(RequestDeadline.after(timeoutMs));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+}
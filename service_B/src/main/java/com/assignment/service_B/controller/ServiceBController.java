@@ -3,10 +3,12 @@ package com.assignment.service_B.controller;
 import com.assignment.service_B.dto.ErrorResponse;
 import com.assignment.service_B.dto.RequestDTO;
 import com.assignment.service_B.dto.ResponseDTO;
-import com.assignment.service_B.entity.TransactionLog;
-import com.assignment.service_B.repository.TransactionLogRepository;
+import com.assignment.service_B.exception.ServiceBExceptions;
 import com.assignment.service_B.service.ProcessingService;
+import com.assignment.service_B.service.TransactionStatusCache;
+import com.assignment.service_B.service.TransactionStatusCache.TransactionStatus;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -15,11 +17,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Optional;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/serviceB")
@@ -29,7 +33,10 @@ import java.util.Optional;
 public class ServiceBController {
 
     private final ProcessingService processingService;
-    private final TransactionLogRepository transactionLogRepository;
+    private final TransactionStatusCache transactionStatusCache;
+
+    @Value("${status.batch.max-size:1000}")
+    private int maxStatusBatchSize;
 
     @PostMapping(value = "/process", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "Process a Request", description = "Processes a request received from Service A")
@@ -48,6 +55,24 @@ public class ServiceBController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping(value = "/process/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Process a Batch of Requests",
+            description = "Processes several requests from Service A in one transaction and returns one result per request, in order")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed successfully",
+                    content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = ResponseDTO.class)))),
+            @ApiResponse(responseCode = "400", description = "Invalid request data or batch too large",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<List<ResponseDTO>> processRequests(@RequestBody List<@Valid RequestDTO> requestDTOs) {
+        log.info("Received batch of {} requests from Service A", requestDTOs.size());
+        List<ResponseDTO> responses = processingService.processRequests(requestDTOs);
+        log.info("Processed batch of {} requests", responses.size());
+        return ResponseEntity.ok(responses);
+    }
+
     @GetMapping(value = "/status/{requestId}", produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "Get Transaction Status", description = "Retrieves the status of a transaction by request ID")
     @ApiResponses(value = {
@@ -56,12 +81,27 @@ public class ServiceBController {
     })
     public ResponseEntity<ResponseDTO> getTransactionStatus(@PathVariable String requestId) {
         log.info("Received status check for requestId: {}", requestId);
-        Optional<TransactionLog> logOpt = transactionLogRepository.findByRequestId(requestId);
-        if (logOpt.isEmpty()) {
-            return ResponseEntity.ok(new ResponseDTO("NOT_FOUND", requestId, "Transaction not found"));
+        return ResponseEntity.ok(transactionStatusCache.get(requestId).toResponse(requestId));
+    }
+
+    @PostMapping(value = "/status/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get Transaction Statuses",
+            description = "Retrieves the statuses of several transactions with one query, one result per request ID, in order")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statuses retrieved successfully",
+                    content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = ResponseDTO.class)))),
+            @ApiResponse(responseCode = "400", description = "Too many request IDs",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<List<ResponseDTO>> getTransactionStatuses(@RequestBody List<String> requestIds) {
+        log.info("Received status check for {} requestIds", requestIds.size());
+        if (requestIds.size() > maxStatusBatchSize) {
+            throw new ServiceBExceptions("Status batch size " + requestIds.size() + " exceeds the maximum of " + maxStatusBatchSize);
         }
-        TransactionLog log = logOpt.get();
-        return ResponseEntity.ok(new ResponseDTO(log.getStatus(), requestId,
-                "Status: " + log.getStatus() + ", Updated: " + log.getUpdatedAt()));
+        Map<String, TransactionStatus> cached = transactionStatusCache.getAll(requestIds);
+        List<ResponseDTO> statuses = requestIds.stream()
+                .map(requestId -> cached.get(requestId).toResponse(requestId))
+                .toList();
+        return ResponseEntity.ok(statuses);
     }
 }
\ No newline at end of file
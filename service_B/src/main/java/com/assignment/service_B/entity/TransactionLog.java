@@ -2,13 +2,25 @@ package com.assignment.service_B.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
+/**
+ * Service B's side of one saga. The row is kept narrow for the scans that run over it: the status is a
+ * one-byte code, and the rarely read free text lives in {@link TransactionLogDetail}. Recovery's keyset scan,
+ * {@code findByStatusIn} and {@code countGroupByStatus} read {@code (status, updated_at, id)} straight off an index.
+ * H2 has no partial indexes; on a database that does, the status index should be restricted to
+ * {@code status = 0} (INITIATED), the status recovery scans for, so it stays as small as the backlog instead of
+ * growing with the table.
+ */
 @Entity
-@Table(name = "transaction_logs")
+@Table(name = "transaction_logs", indexes = {
+        @Index(name = "idx_transaction_logs_status_updated_at", columnList = "status, updated_at, id")
+})
 @Data
 public class TransactionLog {
 
@@ -19,11 +31,15 @@ public class TransactionLog {
     @Column(name = "request_id", nullable = false, unique = true, length = 50)
     private String requestId;
 
-    @Column(name = "status", nullable = false, length = 20)
-    private String status; // e.g., "INITIATED", "SUCCESS", "FAILED", "COMPENSATED"
+    @Convert(converter = StatusConverter.class)
+    @Column(name = "status", nullable = false)
+    private Status status;
 
-    @Column(name = "error_message", columnDefinition = "TEXT")
-    private String errorMessage;
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
+    @JoinColumn(name = "detail_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private TransactionLogDetail detail;
 
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
@@ -33,7 +49,61 @@ public class TransactionLog {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    /**
+     * Error message, stored in the {@link TransactionLogDetail}, which is created on first use. Logs are only
+     * ever failed once, so this never has to load an existing detail outside a transaction.
+     */
+    public String getErrorMessage() {
+        return detail == null ? null : detail.getErrorMessage();
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        if (detail == null) {
+            if (errorMessage == null) {
+                return;
+            }
+            detail = new TransactionLogDetail();
+        }
+        detail.setErrorMessage(errorMessage);
+    }
+
+    /**
+     * Saga states with the fixed codes they are stored as; new states get new codes.
+     */
     public enum Status {
-        INITIATED, SUCCESS, FAILED, COMPENSATED
+        INITIATED(0), SUCCESS(1), FAILED(2), COMPENSATED(3);
+
+        private final byte code;
+
+        Status(int code) {
+            this.code = (byte) code;
+        }
+
+        public byte code() {
+            return code;
+        }
+
+        public static Status fromCode(byte code) {
+            for (Status status : values()) {
+                if (status.code == code) {
+                    return status;
+                }
+            }
+            throw new IllegalArgumentException("Unknown transaction log status code: " + code);
+        }
+    }
+
+    @Converter
+    public static class StatusConverter implements AttributeConverter<Status, Byte> {
+
+        @Override
+        public Byte convertToDatabaseColumn(Status status) {
+            return status == null ? null : status.code();
+        }
+
+        @Override
+        public Status convertToEntityAttribute(Byte code) {
+            return code == null ? null : Status.fromCode(code);
+        }
     }
-}
\ No newline at end of file
+}
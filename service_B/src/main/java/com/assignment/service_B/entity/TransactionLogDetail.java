@@ -0,0 +1,21 @@
+package com.assignment.service_B.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Free text of a {@link TransactionLog}, rarely read and kept out of its row so that status scans and updates
+ * touch narrow rows only. A log gets a detail row once there is something to store in it.
+ */
+@Entity
+@Table(name = "transaction_log_details")
+@Data
+public class TransactionLogDetail {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+}
@@ -0,0 +1,11 @@
+package com.assignment.service_B.exception;
+
+/**
+ * Service A stopped waiting for the request before it was processed.
+ */
+public class DeadlineExceededException extends ServiceBExceptions {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
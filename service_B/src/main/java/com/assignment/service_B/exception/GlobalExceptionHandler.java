@@ -11,6 +11,13 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<ErrorResponse> handleDeadlineExceeded(DeadlineExceededException ex) {
+        log.warn("DeadlineExceededException: {}", ex.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse("DEADLINE_EXCEEDED", ex.getMessage(), System.currentTimeMillis());
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(errorResponse);
+    }
+
     @ExceptionHandler(ServiceBExceptions.class)
     public ResponseEntity<ErrorResponse> handleServiceBException(ServiceBExceptions ex) {
         log.error("ServiceBException: {}", ex.getMessage(), ex);
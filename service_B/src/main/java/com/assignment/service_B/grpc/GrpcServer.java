@@ -0,0 +1,73 @@
+package com.assignment.service_B.grpc;
+
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Netty server for {@link ServiceBGrpcService} on {@code grpc.server.port}. It starts with the web server and
+ * on shutdown stops accepting calls and waits up to {@code shutdown-timeout-ms} for running calls to finish.
+ */
+@Component
+@ConditionalOnProperty(prefix = "grpc.server", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class GrpcServer implements SmartLifecycle {
+
+    private final Server server;
+    private final long shutdownTimeoutMs;
+    private volatile boolean running;
+
+    public GrpcServer(ServiceBGrpcService serviceBGrpcService,
+                      @Qualifier("grpcExecutor") Executor grpcExecutor,
+                      @Value("${grpc.server.port:9081}") int port,
+                      @Value("${grpc.server.permit-keep-alive-seconds:10}") long permitKeepAliveSeconds,
+                      @Value("${grpc.server.shutdown-timeout-ms:5000}") long shutdownTimeoutMs) {
+        this.server = NettyServerBuilder.forPort(port)
+                .executor(grpcExecutor)
+                .addService(serviceBGrpcService)
+                .permitKeepAliveTime(permitKeepAliveSeconds, TimeUnit.SECONDS)
+                .permitKeepAliveWithoutCalls(true)
+                .build();
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+    }
+
+    @Override
+    public void start() {
+        try {
+            server.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start gRPC server", e);
+        }
+        running = true;
+        log.info("gRPC server started on port {}", server.getPort());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        server.shutdown();
+        try {
+            if (!server.awaitTermination(shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+                server.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            server.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
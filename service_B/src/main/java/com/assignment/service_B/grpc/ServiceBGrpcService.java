@@ -0,0 +1,248 @@
+package com.assignment.service_B.grpc;
+
+import com.assignment.grpc.serviceb.CompensateRequest;
+import com.assignment.grpc.serviceb.ProcessBatchRequest;
+import com.assignment.grpc.serviceb.ProcessRequest;
+import com.assignment.grpc.serviceb.ServiceBGrpc;
+import com.assignment.grpc.serviceb.StatusBatchRequest;
+import com.assignment.grpc.serviceb.StatusRequest;
+import com.assignment.grpc.serviceb.TransactionBatchResponse;
+import com.assignment.grpc.serviceb.TransactionResponse;
+import com.assignment.service_B.dto.RequestDTO;
+import com.assignment.service_B.dto.ResponseDTO;
+import com.assignment.service_B.exception.DeadlineExceededException;
+import com.assignment.service_B.exception.ServiceBExceptions;
+import com.assignment.service_B.service.ProcessingService;
+import com.assignment.service_B.service.RequestDeadline;
+import com.assignment.service_B.service.SagaParticipantService;
+import com.assignment.service_B.service.TransactionStatusCache;
+import com.assignment.service_B.service.TransactionStatusCache.TransactionStatus;
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * gRPC counterpart of the REST endpoints, backed by the same services. {@code ProcessStream} lets Service A keep
+ * many requests in flight on one HTTP/2 stream: up to {@code grpc.server.stream-max-in-flight} requests of a
+ * stream are processed concurrently on the gRPC executor, and further requests are only read from the transport
+ * as earlier ones complete.
+ */
+@Component
+@ConditionalOnProperty(prefix = "grpc.server", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ServiceBGrpcService extends ServiceBGrpc.ServiceBImplBase {
+
+    static final String ERROR = "ERROR";
+
+    private final ProcessingService processingService;
+    private final TransactionStatusCache transactionStatusCache;
+    private final SagaParticipantService sagaParticipantService;
+    private final Validator validator;
+    private final Executor grpcExecutor;
+    private final int streamMaxInFlight;
+    private final int maxStatusBatchSize;
+
+    public ServiceBGrpcService(ProcessingService processingService,
+                               TransactionStatusCache transactionStatusCache,
+                               SagaParticipantService sagaParticipantService,
+                               Validator validator,
+                               @Qualifier("grpcExecutor") Executor grpcExecutor,
+                               @Value("${grpc.server.stream-max-in-flight:64}") int streamMaxInFlight,
+                               @Value("${status.batch.max-size:1000}") int maxStatusBatchSize) {
+        this.processingService = processingService;
+        this.transactionStatusCache = transactionStatusCache;
+        this.sagaParticipantService = sagaParticipantService;
+        this.validator = validator;
+        this.grpcExecutor = grpcExecutor;
+        this.streamMaxInFlight = streamMaxInFlight;
+        this.maxStatusBatchSize = maxStatusBatchSize;
+    }
+
+    @Override
+    public void process(ProcessRequest request, StreamObserver<TransactionResponse> responseObserver) {
+        respond(responseObserver, () -> toProto(processingService.processRequest(validated(request)), 0));
+    }
+
+    @Override
+    public StreamObserver<ProcessRequest> processStream(StreamObserver<TransactionResponse> responseObserver) {
+        ServerCallStreamObserver<TransactionResponse> call = (ServerCallStreamObserver<TransactionResponse>) responseObserver;
+        call.disableAutoRequest();
+        call.request(streamMaxInFlight);
+        return new StreamObserver<>() {
+            private final AtomicInteger outstanding = new AtomicInteger();
+            private final AtomicBoolean completed = new AtomicBoolean();
+            private volatile boolean halfClosed;
+
+            @Override
+            public void onNext(ProcessRequest request) {
+                outstanding.incrementAndGet();
+                long deadline = RequestDeadline.after(request.getTimeoutMs());
+                grpcExecutor.execute(() -> {
+                    TransactionResponse response = processStreamed(request, deadline);
+                    synchronized (call) {
+                        if (!call.isCancelled()) {
+                            call.onNext(response);
+                        }
+                    }
+                    call.request(1);
+                    if (outstanding.decrementAndGet() == 0 && halfClosed) {
+                        complete();
+                    }
+                });
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                log.debug("Process stream closed by client: {}", t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                halfClosed = true;
+                if (outstanding.get() == 0) {
+                    complete();
+                }
+            }
+
+            private void complete() {
+                if (completed.compareAndSet(false, true)) {
+                    synchronized (call) {
+                        if (!call.isCancelled()) {
+                            call.onCompleted();
+                        }
+                    }
+                }
+            }
+        };
+    }
+
+    @Override
+    public void processBatch(ProcessBatchRequest request, StreamObserver<TransactionBatchResponse> responseObserver) {
+        respond(responseObserver, () -> {
+            List<RequestDTO> requestDTOs = request.getRequestsList().stream().map(this::validated).toList();
+            return toProto(processingService.processRequests(requestDTOs));
+        });
+    }
+
+    @Override
+    public void getStatus(StatusRequest request, StreamObserver<TransactionResponse> responseObserver) {
+        respond(responseObserver, () -> toProto(transactionStatusCache.get(request.getRequestId())
+                .toResponse(request.getRequestId()), 0));
+    }
+
+    @Override
+    public void getStatuses(StatusBatchRequest request, StreamObserver<TransactionBatchResponse> responseObserver) {
+        respond(responseObserver, () -> {
+            List<String> requestIds = request.getRequestIdsList();
+            if (requestIds.size() > maxStatusBatchSize) {
+                throw new ServiceBExceptions("Status batch size " + requestIds.size() + " exceeds the maximum of " + maxStatusBatchSize);
+            }
+            Map<String, TransactionStatus> cached = transactionStatusCache.getAll(requestIds);
+            return toProto(requestIds.stream()
+                    .map(requestId -> cached.get(requestId).toResponse(requestId))
+                    .toList());
+        });
+    }
+
+    @Override
+    public void compensate(CompensateRequest request, StreamObserver<TransactionResponse> responseObserver) {
+        respond(responseObserver, () -> toProto(sagaParticipantService.compensateTransaction(request.getRequestId()), 0));
+    }
+
+    private TransactionResponse processStreamed(ProcessRequest request, long deadline) {
+        if (request.getTimeoutMs() > 0) {
+            RequestDeadline.set(deadline);
+        }
+        try {
+            return toProto(processingService.processRequest(validated(request)), request.getCorrelationId());
+        } catch (Exception e) {
+            log.error("Streamed request {} failed. Error: {}", request.getRequestId(), e.getMessage());
+            return TransactionResponse.newBuilder()
+                    .setStatus(ERROR)
+                    .setRequestId(request.getRequestId())
+                    .setMessage(String.valueOf(e.getMessage()))
+                    .setCorrelationId(request.getCorrelationId())
+                    .build();
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+
+    /**
+     * Completes the call with the supplied response, mapping failures the way {@code GlobalExceptionHandler}
+     * maps them to HTTP statuses. The call's gRPC deadline, if the client set one, becomes the
+     * {@link RequestDeadline} of the handler.
+     */
+    private static <T> void respond(StreamObserver<T> responseObserver, Supplier<T> handler) {
+        Deadline deadline = Context.current().getDeadline();
+        if (deadline != null) {
+            RequestDeadline.set(RequestDeadline.after(deadline.timeRemaining(TimeUnit.MILLISECONDS)));
+        }
+        T response;
+        try {
+            response = handler.get();
+        } catch (DeadlineExceededException e) {
+            log.warn("DeadlineExceededException: {}", e.getMessage());
+            responseObserver.onError(Status.DEADLINE_EXCEEDED.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        } catch (ServiceBExceptions e) {
+            log.error("ServiceBException: {}", e.getMessage(), e);
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        } catch (Exception e) {
+            log.error("Unhandled Exception: {}", e.getMessage(), e);
+            responseObserver.onError(Status.INTERNAL.withDescription("An unexpected error occurred").asRuntimeException());
+            return;
+        } finally {
+            RequestDeadline.clear();
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    private RequestDTO validated(ProcessRequest request) {
+        RequestDTO requestDTO = new RequestDTO(request.getRequestId(), request.getUserId(), request.getPayload());
+        Set<ConstraintViolation<RequestDTO>> violations = validator.validate(requestDTO);
+        if (!violations.isEmpty()) {
+            throw new ServiceBExceptions(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        return requestDTO;
+    }
+
+    private static TransactionBatchResponse toProto(List<ResponseDTO> responses) {
+        TransactionBatchResponse.Builder batch = TransactionBatchResponse.newBuilder();
+        responses.forEach(response -> batch.addResponses(toProto(response, 0)));
+        return batch.build();
+    }
+
+    private static TransactionResponse toProto(ResponseDTO response, long correlationId) {
+        return TransactionResponse.newBuilder()
+                .setStatus(response.getStatus())
+                .setRequestId(response.getRequestId())
+                .setMessage(response.getMessage() == null ? "" : response.getMessage())
+                .setCorrelationId(correlationId)
+                .build();
+    }
+}
@@ -0,0 +1,40 @@
+package com.assignment.service_B.journal;
+
+import com.assignment.service_B.entity.TransactionLog;
+import com.assignment.service_B.repository.TransactionLogRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes durable journal entries to {@code transaction_logs} in bulk. Entries whose request ID is already in
+ * the table were applied before a restart, or inserted meanwhile by the batch endpoint, and are skipped, so
+ * replaying a journal segment is idempotent.
+ */
+@Component
+@ConditionalOnProperty(prefix = "processing.journal", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class JournalApplier {
+
+    private final TransactionLogRepository transactionLogRepository;
+
+    @Transactional
+    public int apply(List<JournalEntry> entries) {
+        Set<String> seenRequestIds = new HashSet<>(transactionLogRepository.findExistingRequestIds(
+                entries.stream().map(JournalEntry::requestId).distinct().toList()));
+        List<TransactionLog> newLogs = new ArrayList<>(entries.size());
+        for (JournalEntry entry : entries) {
+            if (seenRequestIds.add(entry.requestId())) {
+                newLogs.add(entry.toTransactionLog());
+            }
+        }
+        transactionLogRepository.insertAll(newLogs);
+        return newLogs.size();
+    }
+}
@@ -0,0 +1,89 @@
+package com.assignment.service_B.journal;
+
+import com.assignment.service_B.entity.TransactionLog;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.zip.CRC32;
+
+/**
+ * One journaled state transition. On disk a record is {@code [int length][int crc32][body]}, where the body
+ * holds the fields below; a zero length or a checksum mismatch marks the end of the valid records.
+ */
+public record JournalEntry(String requestId, String status, LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+    static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    public static JournalEntry of(TransactionLog transactionLog) {
+        return new JournalEntry(transactionLog.getRequestId(), transactionLog.getStatus().name(),
+                transactionLog.getCreatedAt(), transactionLog.getUpdatedAt());
+    }
+
+    public TransactionLog toTransactionLog() {
+        TransactionLog transactionLog = new TransactionLog();
+        transactionLog.setRequestId(requestId);
+        transactionLog.setStatus(TransactionLog.Status.valueOf(status));
+        transactionLog.setCreatedAt(createdAt);
+        transactionLog.setUpdatedAt(updatedAt);
+        return transactionLog;
+    }
+
+    byte[] encode() {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(body)) {
+            out.writeUTF(requestId);
+            out.writeUTF(status);
+            out.writeUTF(createdAt.toString());
+            out.writeUTF(updatedAt.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] bytes = body.toByteArray();
+        return ByteBuffer.allocate(HEADER_SIZE + bytes.length)
+                .putInt(bytes.length)
+                .putInt(checksum(bytes))
+                .put(bytes)
+                .array();
+    }
+
+    /**
+     * Reads the record at the buffer's position, or returns {@code null} without consuming anything if there
+     * is no complete, intact record there.
+     */
+    static JournalEntry decode(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_SIZE) {
+            return null;
+        }
+        int start = buffer.position();
+        int length = buffer.getInt();
+        int crc = buffer.getInt();
+        if (length <= 0 || length > buffer.remaining()) {
+            buffer.position(start);
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        if (checksum(bytes) != crc) {
+            buffer.position(start);
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return new JournalEntry(in.readUTF(), in.readUTF(),
+                    LocalDateTime.parse(in.readUTF()), LocalDateTime.parse(in.readUTF()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,414 @@
+package com.assignment.service_B.journal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Append-only write-ahead journal for transaction state, kept in memory-mapped segment files under
+ * {@code processing.journal.directory}. Appends are acknowledged once they are synced to disk; a flusher thread
+ * syncs everything appended within {@code group-commit-ms} with a single {@code force()}, so concurrent requests
+ * share the cost of one fsync. Durable entries are then written to {@code transaction_logs} in bulk by an applier
+ * thread, and segments whose entries have all been applied are deleted. Segments left behind by a crash are
+ * replayed into the table before startup recovery runs.
+ * <p>
+ * A batch the table keeps rejecting is retried {@code apply-max-attempts} times, then its entries are applied one
+ * by one and those that still fail are appended to {@code dead-letter.log} in the same record format, so one bad
+ * entry cannot stall the journal. Dead letters are not replayed; they are left for an operator to inspect.
+ */
+@Component
+@ConditionalOnProperty(prefix = "processing.journal", name = "enabled", havingValue = "true")
+@Slf4j
+public class TransactionJournal {
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String DEAD_LETTER_FILE = "dead-letter.log";
+    private static final long MAX_APPLY_BACKOFF_MS = 10_000;
+
+    private final JournalApplier journalApplier;
+    private final Path directory;
+    private final int segmentSize;
+    private final long groupCommitNanos;
+    private final int applyBatchSize;
+    private final long applyTimeoutMs;
+    private final int applyMaxAttempts;
+
+    /** Request IDs claimed or journaled but not yet in the table, each with a future completed once it is. */
+    private final ConcurrentMap<String, CompletableFuture<Void>> unapplied = new ConcurrentHashMap<>();
+    private final BlockingQueue<PendingAppend> applyQueue = new LinkedBlockingQueue<>();
+    private final Deque<Segment> closedSegments = new ConcurrentLinkedDeque<>();
+    private final Object appendLock = new Object();
+
+    // Guarded by appendLock
+    private Segment current;
+    private List<PendingAppend> unflushed = new ArrayList<>();
+    private long nextSegmentIndex;
+
+    private volatile boolean running;
+    private volatile boolean replayed;
+    private volatile RuntimeException failure;
+    private Thread flusher;
+    private Thread applier;
+
+    public TransactionJournal(JournalApplier journalApplier,
+                              @Value("${processing.journal.directory:./journal}") String directory,
+                              @Value("${processing.journal.segment-size-mb:64}") int segmentSizeMb,
+                              @Value("${processing.journal.group-commit-ms:2}") long groupCommitMs,
+                              @Value("${processing.journal.apply-batch-size:500}") int applyBatchSize,
+                              @Value("${processing.journal.apply-timeout-ms:5000}") long applyTimeoutMs,
+                              @Value("${processing.journal.apply-max-attempts:10}") int applyMaxAttempts) {
+        this.journalApplier = journalApplier;
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSizeMb * 1024 * 1024;
+        this.groupCommitNanos = TimeUnit.MILLISECONDS.toNanos(groupCommitMs);
+        this.applyBatchSize = applyBatchSize;
+        this.applyTimeoutMs = applyTimeoutMs;
+        this.applyMaxAttempts = Math.max(applyMaxAttempts, 1);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        replay();
+        synchronized (appendLock) {
+            current = openSegment(nextSegmentIndex++);
+            running = true;
+        }
+        flusher = new Thread(this::flushLoop, "Journal-Flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        applier = new Thread(this::applyLoop, "Journal-Applier");
+        applier.setDaemon(true);
+        applier.start();
+        log.info("Transaction journal enabled in {} (segmentSizeMb={}, groupCommitMs={})",
+                directory.toAbsolutePath(), segmentSize / (1024 * 1024), TimeUnit.NANOSECONDS.toMillis(groupCommitNanos));
+    }
+
+    /**
+     * Stops accepting appends, syncs what was appended and gives the applier a bounded time to write it out.
+     * Anything it does not get to stays in the journal and is replayed on the next start.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        synchronized (appendLock) {
+            running = false;
+            appendLock.notifyAll();
+        }
+        flusher.join(applyTimeoutMs);
+        applier.join(applyTimeoutMs);
+        if (!applier.isAlive() && applyQueue.isEmpty()) {
+            closedSegments.add(current);
+            deleteSegments(Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Applies every entry left in the journal directory to {@code transaction_logs} and deletes the segments.
+     * Runs once, before the journal accepts appends.
+     */
+    public synchronized void replay() {
+        if (replayed) {
+            return;
+        }
+        try {
+            List<Path> segments = listSegments();
+            int replayedEntries = 0;
+            int appliedEntries = 0;
+            for (Path segment : segments) {
+                List<JournalEntry> entries = readSegment(segment);
+                for (int from = 0; from < entries.size(); from += applyBatchSize) {
+                    appliedEntries += applyWithRetry(entries.subList(from, Math.min(from + applyBatchSize, entries.size())));
+                }
+                replayedEntries += entries.size();
+                Files.delete(segment);
+                nextSegmentIndex = segmentIndex(segment) + 1;
+            }
+            if (!segments.isEmpty()) {
+                log.info("Replayed {} journal entries from {} segments, {} of them were not yet in the table.",
+                        replayedEntries, segments.size(), appliedEntries);
+            }
+            replayed = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to replay the transaction journal in " + directory, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying the transaction journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Reserves the request ID until its entry has been applied. Returns {@code false} if another request holds it.
+     */
+    public boolean claim(String requestId) {
+        return unapplied.putIfAbsent(requestId, new CompletableFuture<>()) == null;
+    }
+
+    public void release(String requestId) {
+        CompletableFuture<Void> applied = unapplied.remove(requestId);
+        if (applied != null) {
+            applied.complete(null);
+        }
+    }
+
+    /**
+     * Waits up to {@code apply-timeout-ms} for a journaled request to reach {@code transaction_logs}, so that
+     * callers working on the table see it. Returns immediately if the request is not pending in the journal.
+     */
+    public void awaitApplied(String requestId) {
+        CompletableFuture<Void> applied = unapplied.get(requestId);
+        if (applied == null) {
+            return;
+        }
+        try {
+            applied.get(applyTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Journaled request {} was not applied within {} ms", requestId, applyTimeoutMs);
+        }
+    }
+
+    /**
+     * Appends the entry and blocks until it is synced to disk.
+     */
+    public void append(JournalEntry entry) {
+        byte[] record = entry.encode();
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        synchronized (appendLock) {
+            if (failure != null) {
+                throw failure;
+            }
+            if (!running) {
+                throw new IllegalStateException("Transaction journal is closed");
+            }
+            if (current.buffer().remaining() < record.length) {
+                closedSegments.add(current);
+                try {
+                    current = openSegment(nextSegmentIndex++);
+                } catch (IOException e) {
+                    failure = new UncheckedIOException("Failed to open a new journal segment", e);
+                    throw failure;
+                }
+            }
+            current.buffer().put(record);
+            unflushed.add(new PendingAppend(entry, current, durable));
+            if (unflushed.size() == 1) {
+                appendLock.notifyAll();
+            }
+        }
+        try {
+            durable.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            List<PendingAppend> batch;
+            synchronized (appendLock) {
+                while (unflushed.isEmpty() && running) {
+                    try {
+                        appendLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (unflushed.isEmpty()) {
+                    return;
+                }
+            }
+            if (groupCommitNanos > 0 && running) {
+                // Let concurrent appends join this sync
+                LockSupport.parkNanos(groupCommitNanos);
+            }
+            synchronized (appendLock) {
+                batch = unflushed;
+                unflushed = new ArrayList<>();
+            }
+            try {
+                Segment forced = null;
+                for (PendingAppend append : batch) {
+                    if (append.segment() != forced) {
+                        forced = append.segment();
+                        forced.buffer().force();
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to sync the transaction journal, rejecting further appends. Error: {}", e.getMessage());
+                failure = e;
+                batch.forEach(append -> append.durable().completeExceptionally(e));
+                continue;
+            }
+            applyQueue.addAll(batch);
+            batch.forEach(append -> append.durable().complete(null));
+        }
+    }
+
+    private void applyLoop() {
+        List<PendingAppend> batch = new ArrayList<>(applyBatchSize);
+        while (flusher.isAlive() || !applyQueue.isEmpty()) {
+            try {
+                PendingAppend first = applyQueue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                applyQueue.drainTo(batch, applyBatchSize - 1);
+                applyWithRetry(batch.stream().map(PendingAppend::entry).toList());
+                batch.forEach(append -> release(append.entry().requestId()));
+                // Entries are applied in append order, so every segment before this one is fully applied
+                deleteSegments(batch.get(batch.size() - 1).segment().index());
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Applies the entries, returning how many were not yet in the table. Keeps retrying only while the entries
+     * that still fail on their own cannot be written to the dead-letter file.
+     */
+    private int applyWithRetry(List<JournalEntry> entries) throws InterruptedException {
+        long backoffMs = 500;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return journalApplier.apply(entries);
+            } catch (Exception e) {
+                if (attempt >= applyMaxAttempts) {
+                    log.error("Failed to apply {} journal entries after {} attempts, applying them one by one. Error: {}",
+                            entries.size(), attempt, e.getMessage());
+                    try {
+                        return applyEachOrDeadLetter(entries);
+                    } catch (IOException deadLetterFailure) {
+                        log.error("Failed to write to the journal dead-letter file, retrying the batch. Error: {}",
+                                deadLetterFailure.getMessage());
+                    }
+                }
+                log.warn("Failed to apply {} journal entries, retrying in {} ms. Error: {}",
+                        entries.size(), backoffMs, e.getMessage());
+                TimeUnit.MILLISECONDS.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, MAX_APPLY_BACKOFF_MS);
+            }
+        }
+    }
+
+    private int applyEachOrDeadLetter(List<JournalEntry> entries) throws IOException {
+        int applied = 0;
+        List<JournalEntry> rejected = new ArrayList<>();
+        for (JournalEntry entry : entries) {
+            try {
+                applied += journalApplier.apply(List.of(entry));
+            } catch (Exception e) {
+                log.error("Journal entry for requestId {} was rejected, moving it to {}. Error: {}",
+                        entry.requestId(), DEAD_LETTER_FILE, e.getMessage());
+                rejected.add(entry);
+            }
+        }
+        if (!rejected.isEmpty()) {
+            deadLetter(rejected);
+        }
+        return applied;
+    }
+
+    private void deadLetter(List<JournalEntry> entries) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(DEAD_LETTER_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (JournalEntry entry : entries) {
+                ByteBuffer record = ByteBuffer.wrap(entry.encode());
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+            }
+            channel.force(false);
+        }
+    }
+
+    private void deleteSegments(long beforeIndex) {
+        Segment oldest;
+        while ((oldest = closedSegments.peekFirst()) != null && oldest.index() < beforeIndex) {
+            closedSegments.pollFirst();
+            try {
+                Files.deleteIfExists(oldest.path());
+            } catch (IOException e) {
+                log.warn("Failed to delete applied journal segment {}. Error: {}", oldest.path(), e.getMessage());
+            }
+        }
+    }
+
+    private Segment openSegment(long index) throws IOException {
+        Path path = directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new Segment(index, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted(Comparator.comparingLong(TransactionJournal::segmentIndex))
+                    .toList();
+        }
+    }
+
+    private static List<JournalEntry> readSegment(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            List<JournalEntry> entries = new ArrayList<>();
+            JournalEntry entry;
+            // Stops at the zero-filled tail or at a record torn by a crash; neither was ever acknowledged
+            while ((entry = JournalEntry.decode(buffer)) != null) {
+                entries.add(entry);
+            }
+            return entries;
+        }
+    }
+
+    private static long segmentIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private record Segment(long index, Path path, MappedByteBuffer buffer) {
+    }
+
+    private record PendingAppend(JournalEntry entry, Segment segment, CompletableFuture<Void> durable) {
+    }
+}
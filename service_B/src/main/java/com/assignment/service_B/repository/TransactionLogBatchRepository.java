@@ -0,0 +1,22 @@
+package com.assignment.service_B.repository;
+
+import com.assignment.service_B.entity.TransactionLog;
+
+import java.util.List;
+
+/**
+ * Bulk write operations for transaction logs that bypass the persistence context.
+ */
+public interface TransactionLogBatchRepository {
+
+    /**
+     * Inserts all given logs using batched JDBC statements. IDs are not populated on the entities.
+     */
+    void insertAll(List<TransactionLog> transactionLogs);
+
+    /**
+     * Deletes archived logs and their details, skipping any whose status changed since they were read, and
+     * returns the ones deleted.
+     */
+    List<TransactionLog> deleteArchived(List<TransactionLog> transactionLogs);
+}
@@ -0,0 +1,100 @@
+package com.assignment.service_B.repository;
+
+import com.assignment.service_B.entity.TransactionLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link TransactionLogBatchRepository}. IDENTITY ids prevent Hibernate from
+ * batching inserts, so rows are written with {@link JdbcTemplate#batchUpdate} instead.
+ */
+@RequiredArgsConstructor
+public class TransactionLogBatchRepositoryImpl implements TransactionLogBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO transaction_logs (request_id, status, detail_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_DETAIL_SQL =
+            "INSERT INTO transaction_log_details (error_message) VALUES (?)";
+
+    private static final String DELETE_SQL =
+            "DELETE FROM transaction_logs WHERE id = ? AND status = ?";
+
+    private static final String DELETE_DETAIL_SQL =
+            "DELETE FROM transaction_log_details WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${processing.batch.jdbc-batch-size:100}")
+    private int jdbcBatchSize;
+
+    @Override
+    public void insertAll(List<TransactionLog> transactionLogs) {
+        if (transactionLogs.isEmpty()) {
+            return;
+        }
+        // Only failed logs carry an error message, and batches only insert successes, so this is rarely taken
+        for (TransactionLog transactionLog : transactionLogs) {
+            if (transactionLog.getErrorMessage() != null && transactionLog.getDetail().getId() == null) {
+                transactionLog.getDetail().setId(insertDetail(transactionLog.getErrorMessage()));
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, transactionLogs, jdbcBatchSize, (ps, transactionLog) -> {
+            ps.setString(1, transactionLog.getRequestId());
+            ps.setByte(2, transactionLog.getStatus().code());
+            ps.setObject(3, transactionLog.getDetail() == null ? null : transactionLog.getDetail().getId());
+            ps.setTimestamp(4, Timestamp.valueOf(transactionLog.getCreatedAt()));
+            ps.setTimestamp(5, Timestamp.valueOf(transactionLog.getUpdatedAt()));
+        });
+    }
+
+    /**
+     * Details are deleted after their logs, and only for logs the batch actually deleted.
+     */
+    @Override
+    @Transactional
+    public List<TransactionLog> deleteArchived(List<TransactionLog> transactionLogs) {
+        if (transactionLogs.isEmpty()) {
+            return List.of();
+        }
+        int[][] deleted = jdbcTemplate.batchUpdate(DELETE_SQL, transactionLogs, jdbcBatchSize, (ps, transactionLog) -> {
+            ps.setLong(1, transactionLog.getId());
+            ps.setByte(2, transactionLog.getStatus().code());
+        });
+
+        List<TransactionLog> removed = new ArrayList<>();
+        List<Long> detailIds = new ArrayList<>();
+        for (int i = 0; i < transactionLogs.size(); i++) {
+            TransactionLog transactionLog = transactionLogs.get(i);
+            int rows = deleted[i / jdbcBatchSize][i % jdbcBatchSize];
+            if (rows > 0 || rows == Statement.SUCCESS_NO_INFO) {
+                removed.add(transactionLog);
+                if (transactionLog.getDetail() != null) {
+                    detailIds.add(transactionLog.getDetail().getId());
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate(DELETE_DETAIL_SQL, detailIds, jdbcBatchSize, (ps, detailId) -> ps.setLong(1, detailId));
+        return removed;
+    }
+
+    private long insertDetail(String errorMessage) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_DETAIL_SQL, new String[]{"id"});
+            ps.setString(1, errorMessage);
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKeyAs(Long.class);
+    }
+}
@@ -1,16 +1,80 @@
 package com.assignment.service_B.repository;
 
 import com.assignment.service_B.entity.TransactionLog;
+import com.assignment.service_B.entity.TransactionLog.Status;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface TransactionLogRepository extends JpaRepository<TransactionLog, Long> {
+public interface TransactionLogRepository extends JpaRepository<TransactionLog, Long>, TransactionLogBatchRepository {
 
     Optional<TransactionLog> findByRequestId(String requestId);
 
-    List<TransactionLog> findByStatusIn(List<String> statuses);
-}
\ No newline at end of file
+    List<TransactionLog> findByRequestIdIn(Collection<String> requestIds);
+
+    List<TransactionLog> findByStatusIn(List<Status> statuses);
+
+    /**
+     * Logs per status in one pass, to seed the in-memory saga statistics.
+     */
+    @Query("SELECT t.status AS status, COUNT(t) AS count FROM TransactionLog t GROUP BY t.status")
+    List<StatusCount> countGroupByStatus();
+
+    interface StatusCount {
+        Status getStatus();
+
+        long getCount();
+    }
+
+    /**
+     * Size of the backlog a recovery scan with the given cutoff will go through.
+     */
+    long countByStatusAndUpdatedAtBefore(Status status, LocalDateTime cutoff);
+
+    /**
+     * Keyset-paginated scan for archival: rows in one of the given statuses last updated before {@code cutoff},
+     * with their detail, after {@code afterId} in id order.
+     */
+    @Query("SELECT t FROM TransactionLog t LEFT JOIN FETCH t.detail WHERE t.status IN :statuses"
+            + " AND t.updatedAt < :cutoff AND t.id > :afterId ORDER BY t.id ASC")
+    List<TransactionLog> findArchiveChunk(@Param("statuses") Collection<Status> statuses,
+                                          @Param("cutoff") LocalDateTime cutoff,
+                                          @Param("afterId") long afterId,
+                                          Limit limit);
+
+    /**
+     * Keyset-paginated scan for recovery: rows in the given status last updated before {@code cutoff},
+     * strictly after the {@code (afterUpdatedAt, afterId)} cursor, in {@code (updated_at, id)} order.
+     */
+    @Query("SELECT t FROM TransactionLog t WHERE t.status = :status AND t.updatedAt < :cutoff"
+            + " AND (t.updatedAt > :afterUpdatedAt OR (t.updatedAt = :afterUpdatedAt AND t.id > :afterId))"
+            + " ORDER BY t.updatedAt ASC, t.id ASC")
+    List<TransactionLog> findRecoveryChunk(@Param("status") Status status,
+                                           @Param("cutoff") LocalDateTime cutoff,
+                                           @Param("afterUpdatedAt") LocalDateTime afterUpdatedAt,
+                                           @Param("afterId") long afterId,
+                                           Limit limit);
+
+    /**
+     * Keyset page of request IDs in id order, used to rebuild in-memory indexes without loading entities.
+     */
+    @Query("SELECT t.id AS id, t.requestId AS requestId FROM TransactionLog t WHERE t.id > :afterId ORDER BY t.id ASC")
+    List<RequestIdView> findRequestIdsAfter(@Param("afterId") long afterId, Limit limit);
+
+    interface RequestIdView {
+        Long getId();
+
+        String getRequestId();
+    }
+
+    @Query("SELECT t.requestId FROM TransactionLog t WHERE t.requestId IN :requestIds")
+    List<String> findExistingRequestIds(@Param("requestIds") Collection<String> requestIds);
+}
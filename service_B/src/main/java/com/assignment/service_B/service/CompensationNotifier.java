@@ -0,0 +1,150 @@
+package com.assignment.service_B.service;
+
+import com.assignment.service_B.dto.ResponseDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends compensation notifications to Service A off the compensating transaction. Notifications are queued
+ * once their transaction commits and a sender thread posts them to Service A's bulk notify endpoint in batches
+ * of up to {@code max-batch-size}, waiting at most {@code max-wait-ms} for a batch to fill. Failed batches are
+ * retried with exponential backoff and dropped after {@code max-attempts}; while a batch is being retried, new
+ * notifications accumulate into the next one.
+ */
+@Component
+@Slf4j
+public class CompensationNotifier {
+
+    private static final String NOTIFY_PATH = "/api/user-requests/notify-compensation/batch";
+
+    private final RestTemplate restTemplate;
+    private final String notifyUrl;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final BlockingQueue<ResponseDTO> pending;
+
+    private volatile boolean running;
+    private Thread sender;
+
+    public CompensationNotifier(RestTemplate restTemplate,
+                                @Value("${service-a.url:http://localhost:7080}") String serviceAUrl,
+                                @Value("${compensation.notification.max-batch-size:100}") int maxBatchSize,
+                                @Value("${compensation.notification.max-wait-ms:50}") long maxWaitMs,
+                                @Value("${compensation.notification.queue-capacity:10000}") int queueCapacity,
+                                @Value("${compensation.notification.max-attempts:8}") int maxAttempts,
+                                @Value("${compensation.notification.initial-backoff-ms:500}") long initialBackoffMs,
+                                @Value("${compensation.notification.max-backoff-ms:30000}") long maxBackoffMs) {
+        this.restTemplate = restTemplate;
+        this.notifyUrl = serviceAUrl + NOTIFY_PATH;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.pending = new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        sender = new Thread(this::sendLoop, "Compensation-Notifier");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        sender.interrupt();
+    }
+
+    /**
+     * Queues the notification after the current transaction commits, or right away outside a transaction.
+     */
+    public void notifyAfterCommit(ResponseDTO notification) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(notification);
+                }
+            });
+        } else {
+            enqueue(notification);
+        }
+    }
+
+    /**
+     * Notifications waiting to be sent to Service A.
+     */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    private void enqueue(ResponseDTO notification) {
+        if (!pending.offer(notification)) {
+            log.warn("Compensation notification queue is full, dropping notification for requestId: {}",
+                    notification.getRequestId());
+        }
+    }
+
+    private void sendLoop() {
+        while (running) {
+            try {
+                List<ResponseDTO> batch = new ArrayList<>(maxBatchSize);
+                batch.add(pending.take());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    ResponseDTO next = pending.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                sendWithRetry(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (!pending.isEmpty()) {
+            log.warn("Dropping {} unsent compensation notifications on shutdown", pending.size());
+        }
+    }
+
+    private void sendWithRetry(List<ResponseDTO> batch) throws InterruptedException {
+        long backoffMs = initialBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                restTemplate.postForEntity(notifyUrl, batch, Void.class);
+                log.debug("Sent {} compensation notifications to Service A", batch.size());
+                return;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts) {
+                    log.error("Failed to notify Service A of {} compensations after {} attempts, dropping them. Error: {}",
+                            batch.size(), attempt, e.getMessage());
+                    return;
+                }
+                log.warn("Failed to notify Service A of {} compensations (attempt {}), retrying in {} ms. Error: {}",
+                        batch.size(), attempt, backoffMs, e.getMessage());
+                TimeUnit.MILLISECONDS.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.assignment.service_B.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+import org.springframework.retry.interceptor.MethodInvocationRetryCallback;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ends {@code @Retryable} retries that would run past the {@link RequestDeadline}: after a failed attempt, if
+ * the backoff before the next one would use up what is left of the deadline, the last error is thrown right away.
+ * As a {@link RetryListener} bean it applies to every {@code @Retryable} method without listeners of its own; the
+ * backoff is read from the invoked method's {@code @Retryable}. Methods whose backoff is given by expressions are
+ * left to retry as configured.
+ */
+@Component
+@Slf4j
+public class DeadlineRetryListener implements RetryListener {
+
+    /** Spring Retry's cap on an exponential backoff without a {@code maxDelay}. */
+    private static final long DEFAULT_MAX_DELAY_MS = 30000;
+
+    private final Map<Method, Optional<BackoffSpec>> backoffs = new ConcurrentHashMap<>();
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        OptionalLong remaining = RequestDeadline.remainingMs();
+        if (remaining.isEmpty() || !(callback instanceof MethodInvocationRetryCallback<T, E> invocationCallback)) {
+            return;
+        }
+        MethodInvocation invocation = invocationCallback.getInvocation();
+        Method method = AopUtils.getMostSpecificMethod(invocation.getMethod(), AopUtils.getTargetClass(invocation.getThis()));
+        Optional<BackoffSpec> backoff = backoffs.computeIfAbsent(method, DeadlineRetryListener::backoffOf);
+        if (backoff.isEmpty()) {
+            return;
+        }
+        long backoffMs = backoff.get().before(context.getRetryCount());
+        if (remaining.getAsLong() <= backoffMs) {
+            log.warn("Not retrying after attempt {}: {} ms left before the caller's deadline, backoff is {} ms. Error: {}",
+                    context.getRetryCount(), remaining.getAsLong(), backoffMs, throwable.getMessage());
+            context.setExhaustedOnly();
+        }
+    }
+
+    private static Optional<BackoffSpec> backoffOf(Method method) {
+        Retryable retryable = AnnotatedElementUtils.findMergedAnnotation(method, Retryable.class);
+        if (retryable == null) {
+            retryable = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), Retryable.class);
+        }
+        if (retryable == null) {
+            return Optional.empty();
+        }
+        Backoff backoff = retryable.backoff();
+        if (!backoff.delayExpression().isEmpty() || !backoff.multiplierExpression().isEmpty()
+                || !backoff.maxDelayExpression().isEmpty()) {
+            return Optional.empty();
+        }
+        // delay, when set, takes precedence over its synonym value
+        long delayMs = backoff.delay() > 0 ? backoff.delay() : backoff.value();
+        double multiplier = backoff.multiplier() > 0 ? backoff.multiplier() : 1;
+        long maxDelayMs = backoff.maxDelay() > 0 ? backoff.maxDelay() : multiplier > 1 ? DEFAULT_MAX_DELAY_MS : delayMs;
+        return Optional.of(new BackoffSpec(delayMs, multiplier, Math.max(delayMs, maxDelayMs)));
+    }
+
+    private record BackoffSpec(long delayMs, double multiplier, long maxDelayMs) {
+
+        /**
+         * Backoff before the attempt following failed attempt {@code retryCount}.
+         */
+        long before(int retryCount) {
+            return (long) Math.min(maxDelayMs, delayMs * Math.pow(multiplier, retryCount - 1));
+        }
+    }
+}
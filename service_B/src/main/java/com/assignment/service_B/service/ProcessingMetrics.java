@@ -0,0 +1,63 @@
+package com.assignment.service_B.service;
+
+import com.assignment.common.lanes.LiveTrafficMonitor;
+import com.assignment.service_B.dto.ResponseDTO;
+import com.assignment.service_B.exception.DeadlineExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Times request processing: single requests as {@code processing.request}, tagged with the outcome
+ * ({@code success}, {@code duplicate}, {@code expired} or {@code failure}), and batches as {@code processing.batch}. Percentile
+ * histograms are switched on in {@code management.metrics.distribution}. Both also feed the
+ * {@link LiveTrafficMonitor}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProcessingMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final LiveTrafficMonitor liveTrafficMonitor;
+
+    public ResponseDTO recordRequest(Supplier<ResponseDTO> processing) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            ResponseDTO response = processing.get();
+            outcome = "ALREADY_PROCESSED".equals(response.getStatus()) ? "duplicate" : "success";
+            return response;
+        } catch (DeadlineExceededException e) {
+            outcome = "expired";
+            throw e;
+        } finally {
+            liveTrafficMonitor.record(sample.stop(timer("processing.request", "Processing of a single request", outcome)));
+        }
+    }
+
+    public List<ResponseDTO> recordBatch(Supplier<List<ResponseDTO>> processing) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            List<ResponseDTO> responses = processing.get();
+            outcome = "success";
+            return responses;
+        } catch (DeadlineExceededException e) {
+            outcome = "expired";
+            throw e;
+        } finally {
+            liveTrafficMonitor.record(sample.stop(timer("processing.batch", "Processing of a request batch", outcome)));
+        }
+    }
+
+    private Timer timer(String name, String description, String outcome) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
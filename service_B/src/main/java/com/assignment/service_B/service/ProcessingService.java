@@ -4,10 +4,14 @@ import com.assignment.service_B.dto.RequestDTO;
 import com.assignment.service_B.dto.ResponseDTO;
 import com.assignment.service_B.entity.TransactionLog;
 
+import java.util.List;
+
 
 public interface ProcessingService {
 
     ResponseDTO processRequest(RequestDTO requestDTO);
 
+    List<ResponseDTO> processRequests(List<RequestDTO> requestDTOs);
+
     void processExistingTransaction(TransactionLog transactionLog);
 }
\ No newline at end of file
@@ -1,59 +1,208 @@
 package com.assignment.service_B.service;
 
+import com.assignment.common.lanes.LiveTrafficMonitor;
+import com.assignment.common.recovery.RecoveryProgress;
 import com.assignment.service_B.entity.TransactionLog;
+import com.assignment.service_B.entity.TransactionLog.Status;
+import com.assignment.service_B.journal.TransactionJournal;
 import com.assignment.service_B.repository.TransactionLogRepository;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Recovery service to handle incomplete or failed transactions.
+ * Recovery service to handle incomplete or failed transactions. Recovery is a background lane: rows are recovered
+ * on the recovery executor within the {@code recovery} bulkhead, and each one first yields to live traffic (see
+ * {@link LiveTrafficMonitor}).
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class RecoveryService {
 
+    private static final LocalDateTime SCAN_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     private final TransactionLogRepository transactionLogRepository;
     private final ProcessingService processingService;
     private final SagaParticipantService sagaParticipantService;
+    private final AsyncTaskExecutor recoveryExecutor;
+    private final Bulkhead bulkhead;
+    private final LiveTrafficMonitor liveTrafficMonitor;
+    private final ObjectProvider<TransactionJournal> transactionJournal;
+    private final RecoveryProgress recoveryProgress;
+    private final Timer scanTimer;
+    private final Timer chunkTimer;
+    private final int chunkSize;
+    private final long minAgeSeconds;
+    private final long startupRetryDelayMs;
+    private final AtomicBoolean recoveryRunning = new AtomicBoolean();
+
+    public RecoveryService(TransactionLogRepository transactionLogRepository,
+                           ProcessingService processingService,
+                           SagaParticipantService sagaParticipantService,
+                           @Qualifier("recoveryExecutor") AsyncTaskExecutor recoveryExecutor,
+                           BulkheadRegistry bulkheadRegistry,
+                           LiveTrafficMonitor liveTrafficMonitor,
+                           ObjectProvider<TransactionJournal> transactionJournal,
+                           RecoveryProgress recoveryProgress,
+                           MeterRegistry meterRegistry,
+                           @Value("${recovery.chunk-size:500}") int chunkSize,
+                           @Value("${recovery.min-age-seconds:60}") long minAgeSeconds,
+                           @Value("${recovery.startup.retry-delay-ms:10000}") long startupRetryDelayMs) {
+        this.transactionLogRepository = transactionLogRepository;
+        this.processingService = processingService;
+        this.sagaParticipantService = sagaParticipantService;
+        this.recoveryExecutor = recoveryExecutor;
+        this.bulkhead = bulkheadRegistry.bulkhead("recovery");
+        this.liveTrafficMonitor = liveTrafficMonitor;
+        this.transactionJournal = transactionJournal;
+        this.recoveryProgress = recoveryProgress;
+        this.scanTimer = Timer.builder("recovery.scan")
+                .description("Recovery runs over the INITIATED backlog")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("recovery.chunk")
+                .description("Recovery of one chunk of the INITIATED backlog")
+                .register(meterRegistry);
+        this.chunkSize = chunkSize;
+        this.minAgeSeconds = minAgeSeconds;
+        this.startupRetryDelayMs = startupRetryDelayMs;
+    }
 
+    // Journaled transitions left by a crash must be in the table before it is scanned or takes traffic
     @PostConstruct
+    public void replayJournal() {
+        transactionJournal.ifAvailable(TransactionJournal::replay);
+    }
+
+    /**
+     * Recovers the backlog left by the previous run once the application is up, off the startup path so the port
+     * opens straight away. A scan that fails, or finds another one running, is retried every
+     * {@code recovery.startup.retry-delay-ms} until one gets through the backlog and the readiness gate opens.
+     */
+    @Async("startupRecoveryExecutor")
+    @EventListener(ApplicationReadyEvent.class)
     public void recoverOnStartup() {
         log.info("Recovering incomplete transactions on service startup...");
-        recoverTransactions();
+        while (true) {
+            try {
+                if (recoverTransactions(RecoveryProgress.STARTUP)) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                log.error("Startup recovery failed, retrying in {} ms. Error: {}", startupRetryDelayMs, e.getMessage());
+            }
+            try {
+                Thread.sleep(startupRetryDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
     }
 
-    private void recoverTransactions() {
-        List<TransactionLog> incompleteTransactions =
-                transactionLogRepository.findByStatusIn(List.of("INITIATED"));
-
-        if (incompleteTransactions.isEmpty()) {
-            log.info("No incomplete transactions found.");
-            return;
+    /**
+     * Pages through INITIATED rows older than {@code recovery.min-age-seconds} in chunks of
+     * {@code recovery.chunk-size}, keyset-ordered on (updated_at, id), and recovers each chunk on the
+     * recovery executor before loading the next. Only one scan runs at a time; overlapping triggers are skipped.
+     *
+     * @return whether the scan got through the whole backlog
+     */
+    private boolean recoverTransactions(String trigger) {
+        if (!recoveryRunning.compareAndSet(false, true)) {
+            log.info("Recovery already in progress, skipping this run.");
+            return false;
         }
+        Timer.Sample scan = Timer.start();
+        RecoveryProgress.Run run = null;
+        boolean completed = false;
+        try {
+            // Rows touched after the cutoff, including the ones this scan updates, are left for the next run
+            LocalDateTime cutoff = LocalDateTime.now().minusSeconds(minAgeSeconds);
+            run = recoveryProgress.start(trigger,
+                    transactionLogRepository.countByStatusAndUpdatedAtBefore(Status.INITIATED, cutoff));
+            LocalDateTime afterUpdatedAt = SCAN_START;
+            long afterId = 0;
+            int scanned = 0;
+            List<TransactionLog> chunk;
+            do {
+                chunk = transactionLogRepository.findRecoveryChunk(
+                        Status.INITIATED, cutoff, afterUpdatedAt, afterId, Limit.of(chunkSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                TransactionLog last = chunk.get(chunk.size() - 1);
+                afterUpdatedAt = last.getUpdatedAt();
+                afterId = last.getId();
 
-        for (TransactionLog transaction : incompleteTransactions) {
-            try {
-                log.info("Recovering transaction: {}", transaction.getRequestId());
-                processingService.processExistingTransaction(transaction);
-                log.info("Transaction {} successfully recovered.", transaction.getRequestId());
-            } catch (Exception e) {
-                log.error("Failed to recover transaction {}. Error: {}", transaction.getRequestId(), e.getMessage());
-                sagaParticipantService.compensateTransaction(transaction.getRequestId());
+                Timer.Sample chunkSample = Timer.start();
+                recoverChunk(chunk, run);
+                chunkSample.stop(chunkTimer);
+                scanned += chunk.size();
+                run.scanned(chunk.size());
+            } while (chunk.size() == chunkSize);
+
+            if (scanned == 0) {
+                log.info("No incomplete transactions found.");
+            } else {
+                log.info("Recovery scanned {} incomplete transactions.", scanned);
             }
+            completed = true;
+            return true;
+        } finally {
+            if (run != null) {
+                run.finish(completed);
+            }
+            scan.stop(scanTimer);
+            recoveryRunning.set(false);
+        }
+    }
+
+    private void recoverChunk(List<TransactionLog> chunk, RecoveryProgress.Run run) {
+        CompletableFuture.allOf(chunk.stream()
+                .map(transaction -> CompletableFuture.runAsync(() -> recoverTransaction(transaction, run), recoveryExecutor))
+                .toArray(CompletableFuture[]::new)).join();
+    }
+
+    private void recoverTransaction(TransactionLog transaction, RecoveryProgress.Run run) {
+        try {
+            log.info("Recovering transaction: {}", transaction.getRequestId());
+            liveTrafficMonitor.awaitTurn("recovery");
+            bulkhead.executeRunnable(() -> processingService.processExistingTransaction(transaction));
+            run.recovered(1);
+            log.info("Transaction {} successfully recovered.", transaction.getRequestId());
+        } catch (BulkheadFullException e) {
+            log.warn("Recovery bulkhead full, leaving transaction {} for the next run.", transaction.getRequestId());
+            run.deferred();
+        } catch (Exception e) {
+            log.error("Failed to recover transaction {}. Error: {}", transaction.getRequestId(), e.getMessage());
+            sagaParticipantService.compensateTransaction(transaction.getRequestId());
+            run.failed();
         }
     }
 
+    // On the taskExecutor so a long scan does not hold the scheduler thread; rows fan out to the recovery executor
     @Async("taskExecutor")
-    @Scheduled(fixedRate = 6 * 60 * 1000)
+    @Scheduled(fixedRate = 6 * 60 * 1000, initialDelay = 6 * 60 * 1000)
     public void periodicRecovery() {
         log.info("Running periodic recovery of incomplete transactions...");
-        recoverTransactions();
+        recoverTransactions("periodic");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,60 @@
+package com.assignment.service_B.service;
+
+import com.assignment.service_B.exception.DeadlineExceededException;
+
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline of the request handled on the current thread. Service A sends how long it will still wait for the
+ * response, in the {@value #HEADER} header over REST, as the call deadline over unary gRPC, or in
+ * {@code timeout_ms} on the process stream. Processing checks it before touching the database and
+ * {@link DeadlineRetryListener} stops retries that would outlast it. Work whose caller has already given up is
+ * dropped instead of competing with requests that can still succeed. Requests without a deadline are never
+ * cut short.
+ */
+public final class RequestDeadline {
+
+    public static final String HEADER = "X-Request-Timeout-Ms";
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    /**
+     * The {@link System#nanoTime()} value {@code timeoutMs} from now.
+     */
+    public static long after(long timeoutMs) {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    }
+
+    public static void set(long deadlineNanos) {
+        DEADLINE.set(deadlineNanos);
+    }
+
+    public static void clear() {
+        DEADLINE.remove();
+    }
+
+    /**
+     * Milliseconds left before the deadline, negative once it has passed, or empty if the request has none.
+     */
+    public static OptionalLong remainingMs() {
+        Long deadline = DEADLINE.get();
+        return deadline == null
+                ? OptionalLong.empty()
+                : OptionalLong.of(TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    /**
+     * Throws {@link DeadlineExceededException} if the caller has stopped waiting for {@code requestId}.
+     */
+    public static void check(String requestId) {
+        OptionalLong remaining = remainingMs();
+        if (remaining.isPresent() && remaining.getAsLong() <= 0) {
+            throw new DeadlineExceededException("Deadline passed " + -remaining.getAsLong()
+                    + " ms ago, dropping requestId: " + requestId);
+        }
+    }
+}
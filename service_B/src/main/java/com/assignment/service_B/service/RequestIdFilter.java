@@ -0,0 +1,89 @@
+package com.assignment.service_B.service;
+
+import com.assignment.service_B.repository.TransactionLogRepository;
+import com.assignment.service_B.repository.TransactionLogRepository.RequestIdView;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Bloom filter over every request ID in {@code transaction_logs}, used to skip the duplicate-check SELECT for
+ * IDs that have definitely never been seen. False positives fall back to the SELECT and the unique constraint
+ * on {@code request_id} remains the final guard. Until the filter has been rebuilt from the table after
+ * startup, every ID is reported as possibly seen.
+ */
+@Component
+@Slf4j
+public class RequestIdFilter {
+
+    private final TransactionLogRepository transactionLogRepository;
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final int loadPageSize;
+    private final BloomFilter<CharSequence> filter;
+
+    private volatile boolean loaded;
+
+    public RequestIdFilter(TransactionLogRepository transactionLogRepository,
+                           @Value("${processing.dedup-filter.enabled:true}") boolean enabled,
+                           @Value("${processing.dedup-filter.expected-insertions:1000000}") long expectedInsertions,
+                           @Value("${processing.dedup-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                           @Value("${processing.dedup-filter.load-page-size:10000}") int loadPageSize) {
+        this.transactionLogRepository = transactionLogRepository;
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.loadPageSize = loadPageSize;
+        this.filter = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), expectedInsertions, falsePositiveRate);
+    }
+
+    /**
+     * Returns {@code false} only if the request ID has definitely never been stored.
+     */
+    public boolean mightContain(String requestId) {
+        return !enabled || !loaded || filter.mightContain(requestId);
+    }
+
+    public void put(String requestId) {
+        filter.put(requestId);
+    }
+
+    /**
+     * Pages through every stored request ID by primary key. IDs inserted while this runs are added by the
+     * write path itself, so nothing is missed once {@code loaded} flips.
+     */
+    @Async("taskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long afterId = 0;
+        long count = 0;
+        List<RequestIdView> page;
+        do {
+            page = transactionLogRepository.findRequestIdsAfter(afterId, Limit.of(loadPageSize));
+            for (RequestIdView row : page) {
+                filter.put(row.getRequestId());
+            }
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+            count += page.size();
+        } while (page.size() == loadPageSize);
+        loaded = true;
+        log.info("Request ID filter loaded with {} IDs.", count);
+        if (count > expectedInsertions) {
+            log.warn("Request ID filter holds {} IDs but is sized for {}; raise processing.dedup-filter.expected-insertions "
+                    + "to keep the false positive rate down.", count, expectedInsertions);
+        }
+    }
+}
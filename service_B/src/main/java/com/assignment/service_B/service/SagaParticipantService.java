@@ -1,13 +1,16 @@
 package com.assignment.service_B.service;
 
+import com.assignment.common.saga.SagaStatistics;
 import com.assignment.service_B.dto.ResponseDTO;
-import jakarta.transaction.Transactional;
+import com.assignment.service_B.journal.TransactionJournal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import com.assignment.service_B.repository.TransactionLogRepository;
 import com.assignment.service_B.entity.TransactionLog;
-import org.springframework.web.client.RestTemplate;
+import com.assignment.service_B.entity.TransactionLog.Status;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -18,10 +21,20 @@ import java.util.Optional;
 public class SagaParticipantService {
 
     private final TransactionLogRepository transactionLogRepository;
-    private final RestTemplate restTemplate;
+    private final CompensationNotifier compensationNotifier;
+    private final TransactionStatusCache transactionStatusCache;
+    private final SagaStatistics<TransactionLog, Status> sagaStatistics;
+    private final ObjectProvider<TransactionJournal> transactionJournal;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
     public ResponseDTO compensateTransaction(String requestId) {
+        // A request acknowledged from the journal may not have reached the table yet; waited for before the
+        // transaction starts, so no connection is held meanwhile
+        transactionJournal.ifAvailable(journal -> journal.awaitApplied(requestId));
+        return transactionTemplate.execute(status -> compensate(requestId));
+    }
+
+    private ResponseDTO compensate(String requestId) {
         Optional<TransactionLog> logOpt = transactionLogRepository.findByRequestId(requestId);
 
         if (logOpt.isEmpty()) {
@@ -30,19 +43,19 @@ public class SagaParticipantService {
         }
 
         TransactionLog Translog = logOpt.get();
-        if ("FAILED".equals(Translog.getStatus()) || "COMPENSATED".equals(Translog.getStatus())) {
+        if (Translog.getStatus() == Status.FAILED || Translog.getStatus() == Status.COMPENSATED) {
             log.info("Transaction {} already compensated or failed, skipping.", requestId);
             return new ResponseDTO("ALREADY_COMPENSATED", requestId, "Transaction already compensated");
         }
 
-        Translog.setStatus("COMPENSATED");
+        Status previous = Translog.getStatus();
+        Translog.setStatus(Status.COMPENSATED);
         Translog.setUpdatedAt(LocalDateTime.now());
         transactionLogRepository.save(Translog);
+        transactionStatusCache.update(Translog);
+        sagaStatistics.transitioned(previous, Status.COMPENSATED, 1);
 
-        if ("COMPENSATED".equals(Translog.getStatus())) {
-            restTemplate.postForEntity("http://localhost:7080/api/notify-compensation",
-                    new ResponseDTO("COMPENSATED", requestId, "Compensated by Service B"), Void.class);
-        }
+        compensationNotifier.notifyAfterCommit(new ResponseDTO("COMPENSATED", requestId, "Compensated by Service B"));
 
         log.info("Transaction {} compensated.", requestId);
         return new ResponseDTO("COMPENSATED", requestId, "Transaction compensated successfully");
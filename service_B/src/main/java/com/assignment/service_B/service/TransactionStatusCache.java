@@ -0,0 +1,149 @@
+package com.assignment.service_B.service;
+
+import com.assignment.common.archive.TransactionLogArchive;
+import com.assignment.service_B.archive.ArchivedTransactionLog;
+import com.assignment.service_B.dto.ResponseDTO;
+import com.assignment.service_B.entity.TransactionLog;
+import com.assignment.service_B.repository.TransactionLogRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-through cache of transaction statuses served by the status endpoints. Final statuses (COMPENSATED and
+ * FAILED) stay cached until evicted by size; all others expire after {@code status.cache.ttl-seconds}. SUCCESS is
+ * not final, as a compensation may still follow, and a load that read it just before the compensation committed
+ * could otherwise overwrite the written-through COMPENSATED for good.
+ * Every state transition writes the new status through after its transaction commits. IDs missing from the
+ * table are looked up in the {@link TransactionLogArchive}.
+ * Hit, miss and eviction counts are published as {@code cache.*} metrics tagged {@code cache=transactionStatus}.
+ */
+@Component
+public class TransactionStatusCache {
+
+    public static final String NOT_FOUND = "NOT_FOUND";
+
+    private static final Set<String> FINAL_STATUSES = Set.of("COMPENSATED", "FAILED");
+
+    private final TransactionLogRepository transactionLogRepository;
+    private final TransactionLogArchive<ArchivedTransactionLog> transactionLogArchive;
+    private final Cache<String, TransactionStatus> cache;
+
+    public TransactionStatusCache(TransactionLogRepository transactionLogRepository,
+                                  TransactionLogArchive<ArchivedTransactionLog> transactionLogArchive,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${status.cache.max-size:100000}") long maxSize,
+                                  @Value("${status.cache.ttl-seconds:5}") long ttlSeconds) {
+        this.transactionLogRepository = transactionLogRepository;
+        this.transactionLogArchive = transactionLogArchive;
+        long ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, TransactionStatus>() {
+                    @Override
+                    public long expireAfterCreate(String requestId, TransactionStatus status, long currentTime) {
+                        return status.isFinal() ? Long.MAX_VALUE : ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String requestId, TransactionStatus status, long currentTime,
+                                                  long currentDuration) {
+                        return status.isFinal() ? Long.MAX_VALUE : ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String requestId, TransactionStatus status, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "transactionStatus");
+    }
+
+    public TransactionStatus get(String requestId) {
+        return cache.get(requestId, id -> transactionLogRepository.findByRequestId(id)
+                .map(TransactionStatus::of)
+                .or(() -> transactionLogArchive.find(id).map(TransactionStatus::of))
+                .orElseGet(TransactionStatus::notFound));
+    }
+
+    /**
+     * Returns the status of every given ID, loading all misses with a single query and one archive lookup.
+     */
+    public Map<String, TransactionStatus> getAll(Collection<String> requestIds) {
+        return cache.getAll(requestIds, missing -> {
+            Map<String, TransactionStatus> loaded = new HashMap<>();
+            for (TransactionLog transactionLog : transactionLogRepository.findByRequestIdIn(Set.copyOf(missing))) {
+                loaded.put(transactionLog.getRequestId(), TransactionStatus.of(transactionLog));
+            }
+            Set<String> unknown = new HashSet<>(missing);
+            unknown.removeAll(loaded.keySet());
+            if (!unknown.isEmpty()) {
+                transactionLogArchive.findAll(unknown).forEach((requestId, entry) -> loaded.put(requestId, TransactionStatus.of(entry)));
+            }
+            missing.forEach(requestId -> loaded.putIfAbsent(requestId, TransactionStatus.notFound()));
+            return loaded;
+        });
+    }
+
+    /**
+     * Writes the log's current status through to the cache once the surrounding transaction commits,
+     * or immediately when there is none. A rolled back transition never reaches the cache.
+     */
+    public void update(TransactionLog transactionLog) {
+        String requestId = transactionLog.getRequestId();
+        TransactionStatus status = TransactionStatus.of(transactionLog);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.put(requestId, status);
+                }
+            });
+        } else {
+            cache.put(requestId, status);
+        }
+    }
+
+    public record TransactionStatus(String status, LocalDateTime updatedAt) {
+
+        static TransactionStatus of(TransactionLog transactionLog) {
+            return new TransactionStatus(transactionLog.getStatus().name(), transactionLog.getUpdatedAt());
+        }
+
+        static TransactionStatus of(ArchivedTransactionLog entry) {
+            return new TransactionStatus(entry.status().name(), entry.updatedAt());
+        }
+
+        static TransactionStatus notFound() {
+            return new TransactionStatus(NOT_FOUND, null);
+        }
+
+        public boolean isFinal() {
+            return FINAL_STATUSES.contains(status);
+        }
+
+        public ResponseDTO toResponse(String requestId) {
+            if (NOT_FOUND.equals(status)) {
+                return new ResponseDTO(NOT_FOUND, requestId, "Transaction not found");
+            }
+            return new ResponseDTO(status, requestId, "Status: " + status + ", Updated: " + updatedAt);
+        }
+    }
+}
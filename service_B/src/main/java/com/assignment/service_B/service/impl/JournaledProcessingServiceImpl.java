@@ -0,0 +1,137 @@
+package com.assignment.service_B.service.impl;
+
+import com.assignment.common.archive.TransactionLogArchive;
+import com.assignment.common.saga.SagaStatistics;
+import com.assignment.service_B.archive.ArchivedTransactionLog;
+import com.assignment.service_B.dto.RequestDTO;
+import com.assignment.service_B.dto.ResponseDTO;
+import com.assignment.service_B.entity.TransactionLog;
+import com.assignment.service_B.exception.ServiceBExceptions;
+import com.assignment.service_B.journal.JournalEntry;
+import com.assignment.service_B.journal.TransactionJournal;
+import com.assignment.service_B.repository.TransactionLogRepository;
+import com.assignment.service_B.service.ProcessingMetrics;
+import com.assignment.service_B.service.ProcessingService;
+import com.assignment.service_B.service.RequestDeadline;
+import com.assignment.service_B.service.RequestIdFilter;
+import com.assignment.service_B.service.TransactionStatusCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Journal-backed processing, enabled with {@code processing.journal.enabled}. Single requests are acknowledged
+ * as soon as their SUCCESS transition is durable in the {@link TransactionJournal}, which writes the row to
+ * {@code transaction_logs} in the background. Batches claim their IDs in the journal too, then go through
+ * {@link ProcessingServiceImpl} like recovery does.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "processing.journal", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class JournaledProcessingServiceImpl implements ProcessingService {
+
+    private final ProcessingServiceImpl processingService;
+    private final TransactionJournal transactionJournal;
+    private final TransactionLogRepository transactionLogRepository;
+    private final TransactionStatusCache transactionStatusCache;
+    private final RequestIdFilter requestIdFilter;
+    private final TransactionLogArchive<ArchivedTransactionLog> transactionLogArchive;
+    private final ProcessingMetrics processingMetrics;
+    private final SagaStatistics<TransactionLog, TransactionLog.Status> sagaStatistics;
+
+    @Override
+    public ResponseDTO processRequest(RequestDTO requestDTO) {
+        return processingMetrics.recordRequest(() -> process(requestDTO));
+    }
+
+    private ResponseDTO process(RequestDTO requestDTO) {
+        log.info("Processing request: {}", requestDTO);
+        String requestId = requestDTO.getRequestId();
+        RequestDeadline.check(requestId);
+
+        // Claiming before the lookup means a concurrent duplicate is either still claimed or already in the table
+        if (!transactionJournal.claim(requestId)) {
+            return duplicate(requestId);
+        }
+        try {
+            if ((requestIdFilter.mightContain(requestId) && transactionLogRepository.findByRequestId(requestId).isPresent())
+                    || transactionLogArchive.contains(requestId)) {
+                transactionJournal.release(requestId);
+                return duplicate(requestId);
+            }
+
+            // INITIATED would only ever be visible for the duration of the append, so only the final state is journaled
+            LocalDateTime now = LocalDateTime.now();
+            JournalEntry entry = new JournalEntry(requestId, TransactionLog.Status.SUCCESS.name(), now, now);
+            transactionJournal.append(entry);
+            requestIdFilter.put(requestId);
+            transactionStatusCache.update(entry.toTransactionLog());
+            // Counted on acknowledgement; the JournalApplier's later insert is not a status change
+            sagaStatistics.created(TransactionLog.Status.SUCCESS, 1);
+        } catch (RuntimeException e) {
+            transactionJournal.release(requestId);
+            log.error("Processing failed for requestId: {}. Error: {}", requestId, e.getMessage());
+            throw new ServiceBExceptions("Failed to process request: " + e.getMessage(), e);
+        }
+
+        log.info("Processing successful for requestId: {}", requestId);
+        return new ResponseDTO("SUCCESS", requestId, "Request is successfully completed!");
+    }
+
+    /**
+     * Claims every ID of the batch in the journal before handing it to {@link ProcessingServiceImpl}, so an ID
+     * journaled by a single request but not yet applied is reported as a duplicate rather than inserted again, and a
+     * single request for an ID of the batch waits for the batch's insert. Claims are released once it has committed.
+     */
+    @Override
+    public List<ResponseDTO> processRequests(List<RequestDTO> requestDTOs) {
+        ResponseDTO[] responses = new ResponseDTO[requestDTOs.size()];
+        Set<String> claimed = new HashSet<>();
+        List<RequestDTO> claimedRequests = new ArrayList<>(requestDTOs.size());
+        List<Integer> claimedIndexes = new ArrayList<>(requestDTOs.size());
+        try {
+            for (int i = 0; i < requestDTOs.size(); i++) {
+                RequestDTO requestDTO = requestDTOs.get(i);
+                String requestId = requestDTO.getRequestId();
+                // Repeats within the batch are left to the batch's own duplicate check
+                if (claimed.contains(requestId) || transactionJournal.claim(requestId)) {
+                    claimed.add(requestId);
+                    claimedRequests.add(requestDTO);
+                    claimedIndexes.add(i);
+                } else {
+                    responses[i] = duplicate(requestId);
+                }
+            }
+            if (!claimedRequests.isEmpty()) {
+                List<ResponseDTO> processed = processingService.processRequests(claimedRequests);
+                for (int i = 0; i < claimedIndexes.size(); i++) {
+                    responses[claimedIndexes.get(i)] = processed.get(i);
+                }
+            }
+        } finally {
+            claimed.forEach(transactionJournal::release);
+        }
+        return Arrays.asList(responses);
+    }
+
+    @Override
+    public void processExistingTransaction(TransactionLog transactionLog) {
+        processingService.processExistingTransaction(transactionLog);
+    }
+
+    private ResponseDTO duplicate(String requestId) {
+        log.warn("Duplicate request detected: {}", requestId);
+        return new ResponseDTO("ALREADY_PROCESSED", requestId, "Duplicate Process stopped! ");
+    }
+}
@@ -1,14 +1,24 @@
 package com.assignment.service_B.service.impl;
 
+import com.assignment.common.archive.TransactionLogArchive;
+import com.assignment.common.saga.SagaStatistics;
+import com.assignment.service_B.archive.ArchivedTransactionLog;
 import com.assignment.service_B.dto.RequestDTO;
 import com.assignment.service_B.dto.ResponseDTO;
 import com.assignment.service_B.entity.TransactionLog;
+import com.assignment.service_B.entity.TransactionLog.Status;
 import com.assignment.service_B.exception.ServiceBExceptions;
 import com.assignment.service_B.repository.TransactionLogRepository;
+import com.assignment.service_B.service.ProcessingMetrics;
 import com.assignment.service_B.service.ProcessingService;
+import com.assignment.service_B.service.RequestDeadline;
+import com.assignment.service_B.service.RequestIdFilter;
+import com.assignment.service_B.service.TransactionStatusCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
@@ -16,45 +26,82 @@ import org.springframework.transaction.annotation.Transactional;
 
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ProcessingServiceImpl implements ProcessingService {
 
+    /** Backoff shared by this class's {@code @Retryable} methods. */
+    private static final long RETRY_DELAY_MS = 500;
+    private static final double RETRY_MULTIPLIER = 2;
+
     private final TransactionLogRepository transactionLogRepository;
+    private final TransactionStatusCache transactionStatusCache;
+    private final RequestIdFilter requestIdFilter;
+    private final TransactionLogArchive<ArchivedTransactionLog> transactionLogArchive;
+    private final ProcessingMetrics processingMetrics;
+    private final SagaStatistics<TransactionLog, Status> sagaStatistics;
+
+    @Value("${processing.batch.max-size:500}")
+    private int maxBatchSize;
 
     @Transactional
-    @Retryable(maxAttempts = 3, backoff = @Backoff(delay = 500, multiplier = 2),
+    @Retryable(maxAttempts = 3, backoff = @Backoff(delay = RETRY_DELAY_MS, multiplier = RETRY_MULTIPLIER),
             include = {DataAccessException.class})
     @Override
     public ResponseDTO processRequest(RequestDTO requestDTO) {
+        return processingMetrics.recordRequest(() -> process(requestDTO));
+    }
+
+    private ResponseDTO process(RequestDTO requestDTO) {
         log.info("Processing request: {}", requestDTO);
+        RequestDeadline.check(requestDTO.getRequestId());
 
-        Optional<TransactionLog> existingLog = transactionLogRepository.findByRequestId(requestDTO.getRequestId());
+        // IDs the filter has never seen skip the lookup; the unique constraint still catches concurrent duplicates
+        if (requestIdFilter.mightContain(requestDTO.getRequestId())) {
+            Optional<TransactionLog> existingLog = transactionLogRepository.findByRequestId(requestDTO.getRequestId());
 
-        if (existingLog.isPresent()) {
-            log.warn("Duplicate request detected: {}", requestDTO.getRequestId());
+            if (existingLog.isPresent()) {
+                log.warn("Duplicate request detected: {}", requestDTO.getRequestId());
+                return new ResponseDTO("ALREADY_PROCESSED", requestDTO.getRequestId(), "Duplicate Process stopped! ");
+            }
+        }
+        // Archived IDs are no longer in the table, so neither the lookup nor the constraint sees them
+        if (transactionLogArchive.contains(requestDTO.getRequestId())) {
+            log.warn("Duplicate of archived request detected: {}", requestDTO.getRequestId());
             return new ResponseDTO("ALREADY_PROCESSED", requestDTO.getRequestId(), "Duplicate Process stopped! ");
         }
 
         TransactionLog transactionLog = new TransactionLog();
         transactionLog.setRequestId(requestDTO.getRequestId());
-        transactionLog.setStatus("INITIATED");
+        transactionLog.setStatus(Status.INITIATED);
         transactionLog.setCreatedAt(LocalDateTime.now());
         transactionLog.setUpdatedAt(LocalDateTime.now());
-        transactionLogRepository.save(transactionLog);
+        try {
+            transactionLogRepository.save(transactionLog);
+        } finally {
+            // Also on a constraint violation, so the retry takes the lookup path and reports the duplicate
+            requestIdFilter.put(requestDTO.getRequestId());
+        }
 
         try {
             log.info("Processing successful for requestId: {}", requestDTO.getRequestId());
-            transactionLog.setStatus("SUCCESS");
+            transactionLog.setStatus(Status.SUCCESS);
             transactionLog.setUpdatedAt(LocalDateTime.now());
             transactionLogRepository.save(transactionLog);
+            transactionStatusCache.update(transactionLog);
+            // INITIATED is never committed on its own, so the log counts as created in SUCCESS
+            sagaStatistics.created(Status.SUCCESS, 1);
             return new ResponseDTO("SUCCESS", requestDTO.getRequestId(), "Request is successfully completed!");
         } catch (Exception e) {
             log.error("Processing failed for requestId: {}. Error: {}", requestDTO.getRequestId(), e.getMessage());
-            transactionLog.setStatus("FAILED");
+            transactionLog.setStatus(Status.FAILED);
             transactionLog.setUpdatedAt(LocalDateTime.now());
             transactionLog.setErrorMessage(e.getMessage());
             transactionLogRepository.save(transactionLog);
@@ -62,10 +109,72 @@ public class ProcessingServiceImpl implements ProcessingService {
         }
     }
 
+    @Transactional
+    @Retryable(maxAttempts = 3, backoff = @Backoff(delay = RETRY_DELAY_MS, multiplier = RETRY_MULTIPLIER),
+            include = {DataAccessException.class})
+    @Override
+    public List<ResponseDTO> processRequests(List<RequestDTO> requestDTOs) {
+        return processingMetrics.recordBatch(() -> processBatch(requestDTOs));
+    }
+
+    private List<ResponseDTO> processBatch(List<RequestDTO> requestDTOs) {
+        if (requestDTOs.size() > maxBatchSize) {
+            throw new ServiceBExceptions("Batch size " + requestDTOs.size() + " exceeds the maximum of " + maxBatchSize);
+        }
+        log.info("Processing batch of {} requests", requestDTOs.size());
+        RequestDeadline.check("batch of " + requestDTOs.size());
+
+        // One IN lookup for the IDs the filter may have seen, instead of one findByRequestId per request
+        List<String> candidates = requestDTOs.stream()
+                .map(RequestDTO::getRequestId)
+                .distinct()
+                .filter(requestIdFilter::mightContain)
+                .toList();
+        Set<String> seenRequestIds = candidates.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(transactionLogRepository.findExistingRequestIds(candidates));
+        // Only IDs missing from the table can be archived, and the archive's index answers for them in memory
+        seenRequestIds.addAll(requestDTOs.stream()
+                .map(RequestDTO::getRequestId)
+                .distinct()
+                .filter(requestId -> !seenRequestIds.contains(requestId) && transactionLogArchive.contains(requestId))
+                .toList());
+
+        List<ResponseDTO> responses = new ArrayList<>(requestDTOs.size());
+        List<TransactionLog> newLogs = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (RequestDTO requestDTO : requestDTOs) {
+            if (!seenRequestIds.add(requestDTO.getRequestId())) {
+                log.warn("Duplicate request detected: {}", requestDTO.getRequestId());
+                responses.add(new ResponseDTO("ALREADY_PROCESSED", requestDTO.getRequestId(), "Duplicate Process stopped! "));
+                continue;
+            }
+            // INITIATED and SUCCESS would be written in the same transaction, so only the final state is inserted
+            TransactionLog transactionLog = new TransactionLog();
+            transactionLog.setRequestId(requestDTO.getRequestId());
+            transactionLog.setStatus(Status.SUCCESS);
+            transactionLog.setCreatedAt(now);
+            transactionLog.setUpdatedAt(now);
+            newLogs.add(transactionLog);
+            responses.add(new ResponseDTO("SUCCESS", requestDTO.getRequestId(), "Request is successfully completed!"));
+        }
 
+        try {
+            transactionLogRepository.insertAll(newLogs);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request won the unique constraint; make the retry look every ID in this batch up
+            newLogs.forEach(transactionLog -> requestIdFilter.put(transactionLog.getRequestId()));
+            throw e;
+        }
+        newLogs.forEach(transactionLog -> requestIdFilter.put(transactionLog.getRequestId()));
+        newLogs.forEach(transactionStatusCache::update);
+        sagaStatistics.created(Status.SUCCESS, newLogs.size());
+        log.info("Batch processed: {} new, {} duplicates", newLogs.size(), requestDTOs.size() - newLogs.size());
+        return responses;
+    }
 
     @Transactional
-    @Retryable(maxAttempts = 3, backoff = @Backoff(delay = 500, multiplier = 2))
+    @Retryable(maxAttempts = 3, backoff = @Backoff(delay = RETRY_DELAY_MS, multiplier = RETRY_MULTIPLIER))
     @Override
     public void processExistingTransaction(TransactionLog transactionLog) {
         log.info("Recovering transaction: {}", transactionLog.getRequestId());
@@ -74,19 +183,23 @@ public class ProcessingServiceImpl implements ProcessingService {
             log.info("Recovery processing successful for requestId: {}", transactionLog.getRequestId());
 
             // Update transaction log to SUCCESS
-            transactionLog.setStatus("SUCCESS");
+            transactionLog.setStatus(Status.SUCCESS);
             transactionLog.setUpdatedAt(LocalDateTime.now());
             transactionLogRepository.save(transactionLog);
+            transactionStatusCache.update(transactionLog);
+            sagaStatistics.transitioned(Status.INITIATED, Status.SUCCESS, 1);
 
         } catch (Exception e) {
             log.error("Recovery failed for requestId: {}. Error: {}",
                     transactionLog.getRequestId(), e.getMessage());
 
             // Mark as FAILED if recovery fails again
-            transactionLog.setStatus("FAILED");
+            transactionLog.setStatus(Status.FAILED);
             transactionLog.setUpdatedAt(LocalDateTime.now());
             transactionLog.setErrorMessage(e.getMessage());
             transactionLogRepository.save(transactionLog);
+            transactionStatusCache.update(transactionLog);
+            sagaStatistics.transitioned(Status.INITIATED, Status.FAILED, 1);
         }
     }
 }
@@ -0,0 +1,119 @@
+package com.assignment.service_B.journal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private TransactionJournal journal;
+
+    @AfterEach
+    void stopJournal() throws InterruptedException {
+        if (journal != null) {
+            journal.stop();
+        }
+    }
+
+    @Test
+    void replaysSegmentLeftByCrashUpToTornRecord() throws Exception {
+        ByteArrayOutputStream segment = new ByteArrayOutputStream();
+        segment.writeBytes(entry("req-1").encode());
+        segment.writeBytes(entry("req-2").encode());
+        // The crash hit while the third record was being written, so it was never acknowledged
+        byte[] torn = entry("req-3").encode();
+        segment.write(torn, 0, torn.length / 2);
+        segment.writeBytes(new byte[64]);
+        Path leftover = directory.resolve("journal-0000000007.log");
+        Files.write(leftover, segment.toByteArray());
+
+        RecordingApplier applier = new RecordingApplier(entry -> false);
+        journal = journal(applier, 3);
+        journal.start();
+
+        assertThat(applier.appliedIds()).containsExactly("req-1", "req-2");
+        assertThat(leftover).doesNotExist();
+        assertThat(directory.resolve("journal-0000000008.log")).exists();
+    }
+
+    @Test
+    void deadLettersEntryTheTableKeepsRejecting() throws Exception {
+        RecordingApplier applier = new RecordingApplier(entry -> entry.requestId().equals("poison"));
+        journal = journal(applier, 2);
+        journal.start();
+
+        journal.claim("good");
+        journal.claim("poison");
+        journal.append(entry("good"));
+        journal.append(entry("poison"));
+        journal.awaitApplied("poison");
+
+        Path deadLetters = directory.resolve("dead-letter.log");
+        assertThat(applier.appliedIds()).containsExactly("good");
+        assertThat(deadLetters).exists();
+        assertThat(decodeAll(Files.readAllBytes(deadLetters))).extracting(JournalEntry::requestId).containsExactly("poison");
+    }
+
+    private TransactionJournal journal(JournalApplier applier, int applyMaxAttempts) {
+        return new TransactionJournal(applier, directory.toString(), 1, 0, 500,
+                TimeUnit.SECONDS.toMillis(10), applyMaxAttempts);
+    }
+
+    private static JournalEntry entry(String requestId) {
+        LocalDateTime now = LocalDateTime.now();
+        return new JournalEntry(requestId, "SUCCESS", now, now);
+    }
+
+    private static List<JournalEntry> decodeAll(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        List<JournalEntry> entries = new ArrayList<>();
+        JournalEntry entry;
+        while ((entry = JournalEntry.decode(buffer)) != null) {
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * Stands in for the table: records what it applies and rejects every batch holding a matching entry.
+     */
+    private static final class RecordingApplier extends JournalApplier {
+        private final Predicate<JournalEntry> rejected;
+        private final List<JournalEntry> applied = new CopyOnWriteArrayList<>();
+
+        RecordingApplier(Predicate<JournalEntry> rejected) {
+            super(null);
+            this.rejected = rejected;
+        }
+
+        @Override
+        public int apply(List<JournalEntry> entries) {
+            if (entries.stream().anyMatch(rejected)) {
+                throw new IllegalStateException("Rejected " + Arrays.toString(entries.toArray()));
+            }
+            applied.addAll(entries);
+            return entries.size();
+        }
+
+        List<String> appliedIds() {
+            return applied.stream().map(JournalEntry::requestId).toList();
+        }
+    }
+}
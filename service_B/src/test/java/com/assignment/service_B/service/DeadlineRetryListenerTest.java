@@ -0,0 +1,67 @@
+package com.assignment.service_B.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.retry.annotation.AnnotationAwareRetryOperationsInterceptor;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeadlineRetryListenerTest {
+
+    @AfterEach
+    void clearDeadline() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void stopsOnceTheInvokedMethodsBackoffWouldOverrunTheDeadline() {
+        FlakyTask target = new FlakyTask();
+        Task task = retrying(target);
+        RequestDeadline.set(RequestDeadline.after(300));
+
+        // 50 ms before the second attempt fits, the 500 ms before the third does not
+        assertThatThrownBy(task::run).isInstanceOf(IllegalStateException.class);
+        assertThat(target.attempts).isEqualTo(2);
+    }
+
+    @Test
+    void retriesAsConfiguredWithoutDeadline() {
+        FlakyTask target = new FlakyTask();
+
+        assertThatThrownBy(retrying(target)::run).isInstanceOf(IllegalStateException.class);
+        assertThat(target.attempts).isEqualTo(3);
+    }
+
+    private static Task retrying(FlakyTask target) {
+        AnnotationAwareRetryOperationsInterceptor interceptor = new AnnotationAwareRetryOperationsInterceptor();
+        interceptor.setBeanFactory(new DefaultListableBeanFactory());
+        interceptor.setListeners(List.of(new DeadlineRetryListener()));
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addInterface(Task.class);
+        proxyFactory.addAdvisor(new DefaultPointcutAdvisor(interceptor));
+        return (Task) proxyFactory.getProxy();
+    }
+
+    interface Task {
+        void run();
+    }
+
+    static class FlakyTask implements Task {
+        int attempts;
+
+        @Retryable(maxAttempts = 3, backoff = @Backoff(delay = 50, multiplier = 10))
+        @Override
+        public void run() {
+            attempts++;
+            throw new IllegalStateException("Attempt " + attempts + " failed");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.assignment.service_B.service.impl;
+
+import com.assignment.common.archive.TransactionLogArchive;
+import com.assignment.common.saga.SagaStatistics;
+import com.assignment.service_B.dto.RequestDTO;
+import com.assignment.service_B.dto.ResponseDTO;
+import com.assignment.service_B.journal.JournalApplier;
+import com.assignment.service_B.journal.JournalEntry;
+import com.assignment.service_B.journal.TransactionJournal;
+import com.assignment.service_B.repository.TransactionLogRepository;
+import com.assignment.service_B.service.ProcessingMetrics;
+import com.assignment.service_B.service.RequestIdFilter;
+import com.assignment.service_B.service.TransactionStatusCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JournaledProcessingServiceImplTest {
+
+    @TempDir
+    Path directory;
+
+    /** Holds journaled entries back from the table, as a busy applier would. */
+    private final CountDownLatch applierBlocked = new CountDownLatch(1);
+    private final ProcessingServiceImpl processingService = mock(ProcessingServiceImpl.class);
+    private TransactionJournal journal;
+    private JournaledProcessingServiceImpl service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JournalApplier applier = new JournalApplier(null) {
+            @Override
+            public int apply(List<JournalEntry> entries) {
+                try {
+                    applierBlocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return entries.size();
+            }
+        };
+        journal = new TransactionJournal(applier, directory.toString(), 1, 0, 500, 1000, 1);
+        journal.start();
+
+        ProcessingMetrics processingMetrics = mock(ProcessingMetrics.class);
+        when(processingMetrics.recordRequest(any())).thenAnswer(invocation -> invocation.<Supplier<ResponseDTO>>getArgument(0).get());
+        service = new JournaledProcessingServiceImpl(processingService, journal, mock(TransactionLogRepository.class),
+                mock(TransactionStatusCache.class), mock(RequestIdFilter.class), mock(TransactionLogArchive.class),
+                processingMetrics, mock(SagaStatistics.class));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        applierBlocked.countDown();
+        journal.stop();
+    }
+
+    @Test
+    void batchReportsIdJournaledButNotYetAppliedAsDuplicate() {
+        assertThat(service.processRequest(request("req-1")).getStatus()).isEqualTo("SUCCESS");
+        when(processingService.processRequests(anyList()))
+                .thenReturn(List.of(new ResponseDTO("SUCCESS", "req-2", "Request is successfully completed!")));
+
+        List<ResponseDTO> responses = service.processRequests(List.of(request("req-1"), request("req-2")));
+
+        assertThat(responses).extracting(ResponseDTO::getRequestId).containsExactly("req-1", "req-2");
+        assertThat(responses).extracting(ResponseDTO::getStatus).containsExactly("ALREADY_PROCESSED", "SUCCESS");
+        verify(processingService).processRequests(List.of(request("req-2")));
+    }
+
+    @Test
+    void singleRequestForIdOfBatchInFlightIsDuplicate() {
+        when(processingService.processRequests(anyList())).thenAnswer(invocation -> {
+            // The batch holds its claims until its insert has committed
+            assertThat(service.processRequest(request("req-1")).getStatus()).isEqualTo("ALREADY_PROCESSED");
+            return List.of(new ResponseDTO("SUCCESS", "req-1", "Request is successfully completed!"));
+        });
+
+        assertThat(service.processRequests(List.of(request("req-1")))).extracting(ResponseDTO::getStatus)
+                .containsExactly("SUCCESS");
+    }
+
+    private static RequestDTO request(String requestId) {
+        return new RequestDTO(requestId, "user-1", "payload");
+    }
+}